@@ -1,20 +1,57 @@
 package br.unb.cloudissues;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import br.unb.cloudissues.analysis.FileIssueDensity;
+import br.unb.cloudissues.analysis.IssueDensityAnalysis;
+import br.unb.cloudissues.analysis.RuleFrequencies;
+import br.unb.cloudissues.analysis.RuleFrequencyAggregation;
+import br.unb.cloudissues.analysis.RuleSimilarityIndex;
+import br.unb.cloudissues.analysis.TimeToFixAnalysis;
+import br.unb.cloudissues.analysis.TimeToFixStatistics;
+import br.unb.cloudissues.http.HttpExecutor;
 import br.unb.cloudissues.http.JavaProjectsCSVRetriever;
 import br.unb.cloudissues.http.JavaProjectsRetriever;
 import br.unb.cloudissues.http.JavaRulesRetriever;
+import br.unb.cloudissues.http.PageArchive;
+import br.unb.cloudissues.http.PageArchiveManifest;
+import br.unb.cloudissues.http.PageCheckpoint;
 import br.unb.cloudissues.http.ProjectFilesRetriever;
+import br.unb.cloudissues.http.RateLimiter;
+import br.unb.cloudissues.http.ResponseCache;
+import br.unb.cloudissues.http.RetryPolicy;
 import br.unb.cloudissues.http.ViolationsRetriever;
+import br.unb.cloudissues.mining.IncrementalViolationsMiner;
+import br.unb.cloudissues.mining.IssueFilter;
+import br.unb.cloudissues.mining.MiningJournal;
+import br.unb.cloudissues.mining.NdjsonIssueWriter;
+import br.unb.cloudissues.mining.ProjectBatches;
+import br.unb.cloudissues.mining.ProjectMiningScheduler;
+import br.unb.cloudissues.mining.UpdateDateWatermarks;
+import br.unb.cloudissues.mining.ViolationsRouter;
 import br.unb.cloudissues.model.Project;
 import br.unb.cloudissues.model.ProjectFiles;
 import br.unb.cloudissues.model.Resolutions;
 import br.unb.cloudissues.model.Rule;
 import br.unb.cloudissues.model.Statuses;
 import br.unb.cloudissues.model.Violations;
+import br.unb.cloudissues.model.ViolationsFacets;
+import br.unb.cloudissues.storage.IssueStore;
+import br.unb.cloudissues.storage.ViolationsFileReader;
+import br.unb.cloudissues.util.HttpClients;
 import br.unb.cloudissues.util.Utils;
 
 public class Main {
@@ -34,47 +71,182 @@ public class Main {
 	private static final String RULES_LIST = DIRECTORY + "java_rules.json";
 	private static final String PROJECTS_LIST = DIRECTORY + "java_project_list.json";
 
+	private static final String VIOLATIONS_COUNTS_LIST = DIRECTORY + "violations_counts.json";
+
+	private static final String TOP_RULES_FREQUENCY = DIRECTORY + "top_rules_frequency.json";
+	private static final int TOP_RULES_COUNT = 50;
+
+	private static final String SIMILAR_RULES_LIST = DIRECTORY + "similar_rules.json";
+	private static final int SIMILAR_RULES_COUNT = 10;
+
+	// false writes the (large) violations files as compact JSON
+	private static final boolean PRETTY_PRINTED_VIOLATIONS = true;
+
+	// write violations as newline-delimited JSON (*_issues.ndjson), one page at a
+	// time while the project is still being retrieved (not incremental)
+	private static final boolean NDJSON_VIOLATIONS = false;
+
 	private static final String WONT_FIX_FALSE_POSITIVE_DIRECTORY = DIRECTORY
 			+ "wont-fix-false-positive/";
 
 	private static final String FILES_METRICS_DIRECTORY = DIRECTORY + "files-metrics/";
 
+	private static final String WATERMARKS_DIRECTORY = DIRECTORY + "watermarks/";
+
+	// only request issues updated since the previous run, merging them into its files
+	private static final boolean INCREMENTAL_MINING = false;
+
+	// request each project's issues in one pass and split them into the fixed,
+	// open and wont-fix directories, instead of one pass per directory (not
+	// incremental). The pass makes two disjoint queries per project, not one:
+	// issues/search ANDs resolutions and statuses, so a single query covering the
+	// open issues could not filter on resolutions and would also fetch issues no
+	// directory keeps (e.g. REMOVED ones). Two queries instead of three, each
+	// fetching exactly what its directories need. Each directory's total is then
+	// its number of issues, not SonarQube's total.
+	private static final boolean SINGLE_PASS_MINING = false;
+
+	private static final String SINGLE_PASS_STAGE = "single-pass";
+
+	// in the single pass, request small projects together, using the totals of
+	// VIOLATIONS_COUNTS_LIST (see requestAndWriteViolationsCounts) when it exists
+	private static final boolean BATCH_SMALL_PROJECTS = true;
+
+	private static final long BATCH_SMALL_PROJECT_MAX_VIOLATIONS = 500;
+
+	private static final long BATCH_MAX_VIOLATIONS = 5_000;
+
+	// keeps the componentKeys parameter within URL length limits
+	private static final int BATCH_MAX_PROJECTS = 50;
+
+	private static final String JOURNAL_PATH = DIRECTORY + "mining-journal.log";
+
+	// skip the projects the journal of the previous (interrupted) run completed,
+	// reading the pages it journaled from HTTP_CACHE_DIRECTORY (without HTTP_CACHE,
+	// only the completed projects are skipped)
+	private static final boolean RESUME_MINING = false;
+
+	// shared by every retriever: at most 1.5 requests per second, bursts of 15
+	private static final RateLimiter RATE_LIMITER = new RateLimiter(1.5, 15);
+
+	// keep every response in HTTP_CACHE_DIRECTORY and serve it from there while
+	// fresh, instead of always requesting the server
+	private static final boolean HTTP_CACHE = false;
+
+	private static final String HTTP_CACHE_DIRECTORY = DIRECTORY + "http-cache/";
+
+	// REPLAY serves everything from HTTP_CACHE_DIRECTORY, without any request
+	private static final ResponseCache.Mode HTTP_CACHE_MODE = ResponseCache.Mode.READ_WRITE;
+
+	private static final Duration HTTP_CACHE_TIME_TO_LIVE = Duration.ofDays(1);
+
+	// null when HTTP_CACHE is off
+	private static final ResponseCache RESPONSE_CACHE = HTTP_CACHE
+			? new ResponseCache(Paths.get(HTTP_CACHE_DIRECTORY), HTTP_CACHE_TIME_TO_LIVE,
+					HTTP_CACHE_MODE)
+			: null;
+
+	private static final HttpExecutor HTTP_EXECUTOR = new HttpExecutor.Builder()
+			.httpClient(HttpClients.shared()) //
+			.rateLimiter(RATE_LIMITER) //
+			.retryPolicy(RetryPolicy.defaultPolicy()) //
+			.responseCache(RESPONSE_CACHE) //
+			.build();
+
+	private static final int CONCURRENT_PAGE_REQUESTS = 4;
+
+	private static final int CONCURRENT_PROJECTS = 4;
+
+	// store the raw response of every page in PAGE_ARCHIVE instead of parsing it;
+	// ingestArchivedViolations and ingestArchivedProjectFiles parse them later
+	private static final boolean ARCHIVE_RAW_PAGES = false;
+
+	private static final PageArchive PAGE_ARCHIVE = new PageArchive(
+			Paths.get(DIRECTORY + "page-archive/"));
+
+	private static final ProjectMiningScheduler PROJECT_SCHEDULER = new ProjectMiningScheduler(
+			CONCURRENT_PROJECTS);
+
+	// the page requests of all projects being mined, shut down once mining ends
+	private static final ExecutorService PAGE_EXECUTOR = Executors
+			.newFixedThreadPool(CONCURRENT_PROJECTS * CONCURRENT_PAGE_REQUESTS);
+
 	static {
 		if (SONAR_API_URL == null || SONAR_API_URL.isEmpty())
 			throw new IllegalStateException("Please change the value of SONAR_API_URL");
 	}
 
+	private static MiningJournal journal;
+
 	public static void main(String[] args) throws IOException, InterruptedException {
-		retrieveAndWriteRules();
+		try (MiningJournal miningJournal = MiningJournal.open(Paths.get(JOURNAL_PATH),
+				RESUME_MINING)) {
+			journal = miningJournal;
 
-		retrieveAndWriteProjects();
-//		retrieveAndWriteProjectsIfApache();
+			if (!alreadyRetrieved(RULES_LIST)) {
+				retrieveAndWriteRules();
+			}
+
+			if (!alreadyRetrieved(PROJECTS_LIST)) {
+				retrieveAndWriteProjects();
+//				retrieveAndWriteProjectsIfApache();
+			}
+
+//			requestAndWriteViolationsCounts(PROJECTS_LIST);
 
-		requestAndWriteFixedViolationsOneFilePerProject(PROJECTS_LIST, FIXED_DIRECTORY);
+			if (SINGLE_PASS_MINING && !INCREMENTAL_MINING && !ARCHIVE_RAW_PAGES) {
+				requestAndWriteAllViolationsInSinglePass(PROJECTS_LIST);
+			} else {
+				requestAndWriteFixedViolationsOneFilePerProject(PROJECTS_LIST, FIXED_DIRECTORY);
 
-		requestAndWriteOpenViolationsOneFilePerProject(PROJECTS_LIST, OPEN_DIRECTORY);
+				requestAndWriteOpenViolationsOneFilePerProject(PROJECTS_LIST, OPEN_DIRECTORY);
 
-		requestAndWriteFalsePositiveAndWontFixViolations(PROJECTS_LIST,
-				WONT_FIX_FALSE_POSITIVE_DIRECTORY);
+				requestAndWriteFalsePositiveAndWontFixViolations(PROJECTS_LIST,
+						WONT_FIX_FALSE_POSITIVE_DIRECTORY);
+			}
+
+			projectsAndFilesMetrics();
+
+//			convertViolationsToIssueStore(FIXED_DIRECTORY);
+//			analyzeTimeToFix(FIXED_DIRECTORY);
+//			aggregateTopRules(TOP_RULES_COUNT);
+//			analyzeIssueDensity(FIXED_DIRECTORY);
+//			computeRulesSimilarity(SIMILAR_RULES_COUNT);
+//			ingestArchivedViolations(FIXED_DIRECTORY);
+//			ingestArchivedProjectFiles();
+		} finally {
+			PAGE_EXECUTOR.shutdownNow();
+		}
+	}
 
-		projectsAndFilesMetrics();
+	private static boolean alreadyRetrieved(String jsonPath) {
+		return RESUME_MINING && Files.exists(Paths.get(jsonPath));
+	}
+
+	/**
+	 * Stage name used in the {@link MiningJournal}: the name of the directory
+	 * holding the stage's files.
+	 */
+	private static String stageOf(String directory) {
+		return Paths.get(directory).getFileName().toString();
 	}
 
 	private static void retrieveAndWriteRules() throws IOException, InterruptedException {
-		JavaRulesRetriever jrr = new JavaRulesRetriever(SONAR_API_URL);
+		JavaRulesRetriever jrr = new JavaRulesRetriever(SONAR_API_URL, HTTP_EXECUTOR);
 		List<Rule> rules = jrr.retrieve();
 		Utils.writeObjToFileAsJSON(rules, RULES_LIST);
 	}
 
 	private static void retrieveAndWriteProjects() throws IOException, InterruptedException {
 		JavaProjectsRetriever jpr = new JavaProjectsRetriever.Builder(SONAR_API_URL)
-				.isSonarCloud(false).build();
+				.isSonarCloud(false).withHttpExecutor(HTTP_EXECUTOR).build();
 		List<Project> sonarJavaProjects = jpr.retrieve();
 		Utils.writeObjToFileAsJSON(sonarJavaProjects, PROJECTS_LIST);
 	}
 
-	static void retrieveAndWriteProjectsIfApache() throws IOException {
-		JavaProjectsCSVRetriever jpr = new JavaProjectsCSVRetriever(SONAR_API_URL + "/projects");
+	static void retrieveAndWriteProjectsIfApache() throws IOException, InterruptedException {
+		JavaProjectsCSVRetriever jpr = new JavaProjectsCSVRetriever(SONAR_API_URL + "/projects",
+				HTTP_EXECUTOR);
 		Utils.writeObjToFileAsJSON(jpr.retrieve(), PROJECTS_LIST);
 	}
 
@@ -82,113 +254,378 @@ public class Main {
 			String fixedDirectory) throws IOException, InterruptedException {
 		System.out.println("\nRetrieving fixed violations");
 
-		List<Project> projects = Utils.retrieveCollectionFromJSONFile(projectsJsonPath,
-				Project.class);
-
-		for (Project project : projects) {
-			requestAndWriteFixedViolationsForProjects(Utils.generateJsonPathToSaveForEachProject(
-					fixedDirectory, project.getProjectName()), Arrays.asList(project));
-			waitBetweenPartitions(10_000);
-		}
-	}
-
-	private static void requestAndWriteFixedViolationsForProjects(String jsonPathToSave,
-			List<Project> projects) throws IOException {
 		ViolationsRetriever violationsRetriever = new ViolationsRetriever.Builder()
 				.withIsSonarCloud(false) //
 				.withBaseUrl(ISSUES_SEARCH_URL) //
-				.withMaxRequestsToWait(15) //
-				.withTimeToWaitInMiliSecondsBetweenRequests(10_000)
+				.withHttpExecutor(HTTP_EXECUTOR) //
+				.withConcurrentPageRequests(CONCURRENT_PAGE_REQUESTS) //
+				.withPageExecutor(PAGE_EXECUTOR) //
+				.withShardingByCreationDate(true) //
+				.withPageCheckpoint(
+						journal.checkpointFor(stageOf(fixedDirectory), RESPONSE_CACHE)) //
 				.withResolutions(Resolutions.FIXED) //
 				.build();
 
-		List<Violations> viols = violationsRetriever.retrieve(projects);
-
-		Utils.writeObjToFileAsJSON(viols, jsonPathToSave);
-	}
-
-	private static void waitBetweenPartitions(int timeInMiliSeconds) throws InterruptedException {
-		System.out.println(
-				"\nwaiting " + (timeInMiliSeconds / 1000) + " seconds between partitions...");
-		Thread.sleep(timeInMiliSeconds);
+		requestAndWriteViolationsOneFilePerProject(projectsJsonPath, fixedDirectory,
+				violationsRetriever);
 	}
 
 	private static void requestAndWriteOpenViolationsOneFilePerProject(String projectsJsonPath,
 			String openDirectory) throws IOException, InterruptedException {
 		System.out.println("\nRetrieving open violations");
 
-		List<Project> projects = Utils.retrieveCollectionFromJSONFile(projectsJsonPath,
-				Project.class);
-
-		for (Project project : projects) {
-			requestAndWriteOpenViolationsForProjects(Utils.generateJsonPathToSaveForEachProject(
-					openDirectory, project.getProjectName()), Arrays.asList(project));
-			waitBetweenPartitions(10_000);
-		}
-	}
-
-	private static void requestAndWriteOpenViolationsForProjects(String jsonPathToSave,
-			List<Project> projects) throws IOException {
 		ViolationsRetriever violationsRetriever = new ViolationsRetriever.Builder()
 				.withIsSonarCloud(false) //
 				.withBaseUrl(ISSUES_SEARCH_URL) //
-				.withMaxRequestsToWait(15) //
-				.withTimeToWaitInMiliSecondsBetweenRequests(10_000) //
+				.withHttpExecutor(HTTP_EXECUTOR) //
+				.withConcurrentPageRequests(CONCURRENT_PAGE_REQUESTS) //
+				.withPageExecutor(PAGE_EXECUTOR) //
+				.withShardingByCreationDate(true) //
+				.withPageCheckpoint(
+						journal.checkpointFor(stageOf(openDirectory), RESPONSE_CACHE)) //
 				.withStatuses(Statuses.OPEN) //
 				.build();
 
-		List<Violations> viols = violationsRetriever.retrieve(projects);
-
-		Utils.writeObjToFileAsJSON(viols, jsonPathToSave);
+		requestAndWriteViolationsOneFilePerProject(projectsJsonPath, openDirectory,
+				violationsRetriever);
 	}
 
 	private static void requestAndWriteFalsePositiveAndWontFixViolations(String projectsJsonPath,
 			String wontFixFalsePositiveDirectory) throws IOException, InterruptedException {
 		System.out.println("\nRetrieving false positive and wont fix violations");
 
-		List<Project> projects = Utils.retrieveCollectionFromJSONFile(projectsJsonPath,
-				Project.class);
+		ViolationsRetriever violationsRetriever = new ViolationsRetriever.Builder()
+				.withIsSonarCloud(false) //
+				.withBaseUrl(ISSUES_SEARCH_URL) //
+				.withHttpExecutor(HTTP_EXECUTOR) //
+				.withConcurrentPageRequests(CONCURRENT_PAGE_REQUESTS) //
+				.withPageExecutor(PAGE_EXECUTOR) //
+				.withShardingByCreationDate(true) //
+				.withPageCheckpoint(journal.checkpointFor(
+						stageOf(wontFixFalsePositiveDirectory), RESPONSE_CACHE)) //
+				.withResolutions(Resolutions.FALSE_POSITIVE, Resolutions.WONTFIX) //
+				.build();
 
-		for (Project project : projects) {
-			requestAndWriteFalsePositiveViolationsForProjects(
-					Utils.generateJsonPathToSaveForEachProject(wontFixFalsePositiveDirectory,
-							project.getProjectName()),
-					Arrays.asList(project));
-			waitBetweenPartitions(10_000);
-		}
+		requestAndWriteViolationsOneFilePerProject(projectsJsonPath,
+				wontFixFalsePositiveDirectory, violationsRetriever);
 	}
 
-	private static void requestAndWriteFalsePositiveViolationsForProjects(String jsonPathToSave,
-			List<Project> projects) throws IOException {
+	/**
+	 * One request per project, counting its issues by rule, severity, type,
+	 * resolution and status without retrieving them. Useful to size a full run.
+	 */
+	static void requestAndWriteViolationsCounts(String projectsJsonPath)
+			throws IOException, InterruptedException {
+		System.out.println("\nCounting violations");
+
 		ViolationsRetriever violationsRetriever = new ViolationsRetriever.Builder()
 				.withIsSonarCloud(false) //
 				.withBaseUrl(ISSUES_SEARCH_URL) //
-				.withMaxRequestsToWait(15) //
-				.withTimeToWaitInMiliSecondsBetweenRequests(10_000)
-				.withResolutions(Resolutions.FALSE_POSITIVE, Resolutions.WONTFIX) //
+				.withHttpExecutor(HTTP_EXECUTOR) //
 				.build();
 
-		List<Violations> viols = violationsRetriever.retrieve(projects);
+		List<Project> projects = Utils.retrieveCollectionFromJSONFile(projectsJsonPath,
+				Project.class);
+		List<ViolationsFacets> counts = Collections.synchronizedList(new ArrayList<>());
+		List<Project> failed = PROJECT_SCHEDULER.run(projects,
+				project -> counts.add(violationsRetriever.retrieveFacets(project)));
+		Utils.writeObjToFileAsJSON(counts, VIOLATIONS_COUNTS_LIST);
+
+		long total = counts.stream().mapToLong(ViolationsFacets::getTotal).sum();
+		long aboveSonarLimit = counts.stream().filter(c -> c.getTotal() > 10_000).count();
+		System.out.println("\n" + total + " violations in " + counts.size() + " projects, "
+				+ aboveSonarLimit + " of them above 10000 violations.");
+		printFailedProjects(failed);
+	}
+
+	/**
+	 * Same filters as the three passes above, but each project is requested once
+	 * per query of {@link ViolationsRouter#queries()}: the resolved issues by
+	 * resolution and the open issues by status, since no single query can
+	 * express both without fetching issues no directory keeps (see
+	 * {@link #SINGLE_PASS_MINING}). Its issues are then routed to the three
+	 * directories.
+	 */
+	private static void requestAndWriteAllViolationsInSinglePass(String projectsJsonPath)
+			throws IOException, InterruptedException {
+		System.out.println("\nRetrieving fixed, open, false positive and wont fix violations");
+
+		ViolationsRouter router = new ViolationsRouter() //
+				.route(FIXED_DIRECTORY, IssueFilter.resolutions(Resolutions.FIXED)) //
+				.route(OPEN_DIRECTORY, IssueFilter.statuses(Statuses.OPEN)) //
+				.route(WONT_FIX_FALSE_POSITIVE_DIRECTORY,
+						IssueFilter.resolutions(Resolutions.FALSE_POSITIVE, Resolutions.WONTFIX));
+
+		PageCheckpoint pageCheckpoint = journal.checkpointFor(SINGLE_PASS_STAGE, RESPONSE_CACHE);
+		List<ViolationsRetriever> violationsRetrievers = new ArrayList<>();
+		for (IssueFilter query : router.queries()) {
+			violationsRetrievers.add(new ViolationsRetriever.Builder() //
+					.withIsSonarCloud(false) //
+					.withBaseUrl(ISSUES_SEARCH_URL) //
+					.withHttpExecutor(HTTP_EXECUTOR) //
+					.withConcurrentPageRequests(CONCURRENT_PAGE_REQUESTS) //
+					.withPageExecutor(PAGE_EXECUTOR) //
+					.withShardingByCreationDate(true) //
+					.withPageCheckpoint(pageCheckpoint) //
+					.withResolutions(query.getResolutions()) //
+					.withStatuses(query.getStatuses()) //
+					.build());
+		}
+
+		List<Project> projects = journal.pending(SINGLE_PASS_STAGE,
+				Utils.retrieveCollectionFromJSONFile(projectsJsonPath, Project.class));
+		List<List<Project>> batches = ProjectBatches.plan(projects, knownViolationsTotals(),
+				BATCH_SMALL_PROJECT_MAX_VIOLATIONS, BATCH_MAX_VIOLATIONS, BATCH_MAX_PROJECTS);
+
+		List<Project> failed = PROJECT_SCHEDULER.runBatches(batches,
+				journal.journaledBatch(SINGLE_PASS_STAGE, batch -> {
+					if (NDJSON_VIOLATIONS && batch.size() == 1) {
+						streamRoutedViolations(router, violationsRetrievers, batch.get(0));
+						return;
+					}
+					Map<String, List<Violations>> violationsByProjectKey = new LinkedHashMap<>();
+					for (ViolationsRetriever violationsRetriever : violationsRetrievers) {
+						for (Violations viols : violationsRetriever.retrieveBatch(batch)) {
+							violationsByProjectKey.computeIfAbsent(viols.getProjectKey(),
+									key -> new ArrayList<>()).add(viols);
+						}
+					}
+					for (List<Violations> viols : violationsByProjectKey.values()) {
+						for (Map.Entry<String, Violations> routed : router.split(viols)
+								.entrySet()) {
+							writeViolations(routed.getKey(), routed.getValue());
+						}
+					}
+				}));
+
+		printFailedProjects(failed);
+	}
+
+	/**
+	 * Appends each page of {@code project} to its NDJSON file in every routed
+	 * directory as soon as the page arrives.
+	 */
+	private static void streamRoutedViolations(ViolationsRouter router,
+			List<ViolationsRetriever> violationsRetrievers, Project project)
+			throws IOException, InterruptedException {
+		Map<String, NdjsonIssueWriter> writers = new LinkedHashMap<>();
+		try {
+			for (String directory : router.getFiltersByDirectory().keySet()) {
+				writers.put(directory, new NdjsonIssueWriter(Paths.get(Utils
+						.generateNdjsonPathToSaveForEachProject(directory, project.getProjectName()))));
+			}
+			for (ViolationsRetriever violationsRetriever : violationsRetrievers) {
+				violationsRetriever.retrieve(project, router.sinkFor(writers));
+			}
+		} finally {
+			for (NdjsonIssueWriter writer : writers.values()) {
+				writer.close();
+			}
+		}
+	}
+
+	private static void writeViolations(String directory, Violations viols) throws IOException {
+		String projectName = viols.getProject().getProjectName();
+		if (NDJSON_VIOLATIONS) {
+			try (NdjsonIssueWriter writer = new NdjsonIssueWriter(Paths
+					.get(Utils.generateNdjsonPathToSaveForEachProject(directory, projectName)))) {
+				writer.accept(viols.getIssues());
+			}
+			return;
+		}
+		Utils.writeObjToFileAsJSON(Arrays.asList(viols),
+				Utils.generateJsonPathToSaveForEachProject(directory, projectName),
+				PRETTY_PRINTED_VIOLATIONS);
+	}
 
-		Utils.writeObjToFileAsJSON(viols, jsonPathToSave);
+	/**
+	 * @return the total of violations by project key written by
+	 *         {@link #requestAndWriteViolationsCounts(String)}, empty when batching
+	 *         is off or there are no counts.
+	 */
+	private static Map<String, Long> knownViolationsTotals() throws IOException {
+		if (!BATCH_SMALL_PROJECTS || !Files.exists(Paths.get(VIOLATIONS_COUNTS_LIST))) {
+			return Collections.emptyMap();
+		}
+		return Utils.retrieveCollectionFromJSONFile(VIOLATIONS_COUNTS_LIST, ViolationsFacets.class)
+				.stream().collect(Collectors.toMap(ViolationsFacets::getProjectKey,
+						ViolationsFacets::getTotal, (first, second) -> first));
 	}
 
-	private static void projectsAndFilesMetrics() throws IOException {
+	/**
+	 * Mines {@link #CONCURRENT_PROJECTS} projects at a time, all of them sharing
+	 * {@link #RATE_LIMITER}. Each project's file is written as soon as the project
+	 * is done.
+	 */
+	private static void requestAndWriteViolationsOneFilePerProject(String projectsJsonPath,
+			String directory, ViolationsRetriever violationsRetriever)
+			throws IOException, InterruptedException {
+		String stage = stageOf(directory);
+		List<Project> projects = journal.pending(stage,
+				Utils.retrieveCollectionFromJSONFile(projectsJsonPath, Project.class));
+
+		if (INCREMENTAL_MINING) {
+			requestAndMergeUpdatedViolations(projects, directory, violationsRetriever);
+			return;
+		}
+
+		List<Project> failed = PROJECT_SCHEDULER.run(projects, journal.journaled(stage, project -> {
+			if (ARCHIVE_RAW_PAGES) {
+				violationsRetriever.archive(project, PAGE_ARCHIVE, stage);
+				return;
+			}
+			if (NDJSON_VIOLATIONS) {
+				try (NdjsonIssueWriter writer = new NdjsonIssueWriter(Paths.get(Utils
+						.generateNdjsonPathToSaveForEachProject(directory, project.getProjectName())))) {
+					violationsRetriever.retrieve(project, writer);
+				}
+				return;
+			}
+			writeViolations(directory, violationsRetriever.retrieve(project));
+		}));
+
+		printFailedProjects(failed);
+	}
+
+	/**
+	 * Only requests the issues updated since the previous run and merges them into
+	 * the existing files. Watermarks are kept per directory in
+	 * {@link #WATERMARKS_DIRECTORY}.
+	 */
+	private static void requestAndMergeUpdatedViolations(List<Project> projects, String directory,
+			ViolationsRetriever violationsRetriever) throws IOException, InterruptedException {
+		Path watermarksPath = Paths.get(WATERMARKS_DIRECTORY,
+				Paths.get(directory).getFileName() + ".json");
+		IncrementalViolationsMiner miner = new IncrementalViolationsMiner(violationsRetriever,
+				UpdateDateWatermarks.load(watermarksPath), directory, PRETTY_PRINTED_VIOLATIONS);
+
+		printFailedProjects(PROJECT_SCHEDULER.run(projects,
+				journal.journaled(stageOf(directory), miner::mine)));
+	}
+
+	/**
+	 * Writes an {@link IssueStore} file next to each violations JSON file of
+	 * {@code directory}, much smaller and faster to scan than the JSON.
+	 */
+	static void convertViolationsToIssueStore(String directory) throws IOException {
+		List<Path> jsonFiles = Utils.retrieveAllJsonFilesFromDirectory(directory)
+				.collect(Collectors.toList());
+		for (Path jsonFile : jsonFiles) {
+			List<Violations> violationsList = Utils
+					.retrieveCollectionFromJSONFile(jsonFile.toString(), Violations.class);
+			String baseName = jsonFile.toString().replaceAll("\\.json$", "");
+			for (int i = 0; i < violationsList.size(); i++) {
+				String suffix = violationsList.size() == 1 ? "" : "-" + i;
+				IssueStore.write(violationsList.get(i),
+						Paths.get(baseName + suffix + IssueStore.EXTENSION));
+			}
+		}
+		System.out.println("\nConverted " + jsonFiles.size() + " files of " + directory);
+	}
+
+	static void analyzeTimeToFix(String directory) throws IOException, InterruptedException {
+		TimeToFixStatistics statistics = new TimeToFixAnalysis().analyzeDirectory(directory);
+		// outside of directory, which must only hold violations files
+		Utils.writeObjToFileAsJSON(statistics.summariesByRule(),
+				DIRECTORY + "time_to_fix_by_rule.json");
+		Utils.writeObjToFileAsJSON(statistics.summariesByProject(),
+				DIRECTORY + "time_to_fix_by_project.json");
+		System.out.println("\nTime to fix of " + statistics.getCount() + " issues: "
+				+ statistics.getOverallSummary());
+	}
+
+	static void aggregateTopRules(int k) throws IOException {
+		RuleFrequencies frequencies = new RuleFrequencyAggregation().aggregateDirectories(
+				Arrays.asList(FIXED_DIRECTORY, OPEN_DIRECTORY, WONT_FIX_FALSE_POSITIVE_DIRECTORY));
+		Utils.writeObjToFileAsJSON(frequencies.top(k), TOP_RULES_FREQUENCY);
+		System.out.println("\nTop " + k + " of " + frequencies.size() + " rules written");
+	}
+
+	static void analyzeIssueDensity(String directory) throws IOException, InterruptedException {
+		int threads = Runtime.getRuntime().availableProcessors();
+		IssueDensityAnalysis analysis = IssueDensityAnalysis
+				.fromDirectory(FILES_METRICS_DIRECTORY, threads);
+		Map<String, List<FileIssueDensity>> densities = analysis
+				.analyze(ViolationsFileReader.violationsFilesIn(directory));
+		Utils.writeObjToFileAsJSON(densities,
+				DIRECTORY + "issue_density_" + stageOf(directory) + ".json");
+		System.out.println("\nIssue density of " + densities.size() + " projects written");
+	}
+
+	static void computeRulesSimilarity(int k) throws IOException {
+		RuleSimilarityIndex index = new RuleSimilarityIndex(
+				Utils.retrieveCollectionFromJSONFile(RULES_LIST, Rule.class));
+		Utils.writeObjToFileAsJSON(index.allPairs(k), SIMILAR_RULES_LIST);
+		System.out.println("\nSimilar rules of " + index.size() + " rules written");
+	}
+
+	/**
+	 * Parses the pages archived for {@code directory}'s stage (see
+	 * {@link #ARCHIVE_RAW_PAGES}) into the files a normal run writes, one project
+	 * per core, without any request.
+	 */
+	static void ingestArchivedViolations(String directory)
+			throws IOException, InterruptedException {
+		ViolationsRetriever violationsRetriever = new ViolationsRetriever.Builder().build();
+		ingestArchive(stageOf(directory), manifest -> writeViolations(directory,
+				violationsRetriever.ingest(manifest, PAGE_ARCHIVE)));
+	}
+
+	static void ingestArchivedProjectFiles() throws IOException, InterruptedException {
+		ProjectFilesRetriever pfr = new ProjectFilesRetriever.Builder(SONAR_API_URL).build();
+		ingestArchive(stageOf(FILES_METRICS_DIRECTORY), manifest -> {
+			ProjectFiles projectFiles = pfr.ingest(manifest, PAGE_ARCHIVE);
+			Utils.writeObjToFileAsJSON(projectFiles, FILES_METRICS_DIRECTORY + Utils
+					.sanitizeProjectName(manifest.getProject().getProjectName() + ".json"));
+		});
+	}
+
+	private interface ManifestTask {
+		void ingest(PageArchiveManifest manifest) throws IOException;
+	}
+
+	private static void ingestArchive(String stage, ManifestTask task)
+			throws IOException, InterruptedException {
+		Map<String, PageArchiveManifest> manifestsByKey = new LinkedHashMap<>();
+		PAGE_ARCHIVE.manifests(stage).forEach(
+				manifest -> manifestsByKey.put(manifest.getProject().getProjectKey(), manifest));
+		List<Project> projects = manifestsByKey.values().stream()
+				.map(PageArchiveManifest::getProject).collect(Collectors.toList());
+
+		ProjectMiningScheduler scheduler = new ProjectMiningScheduler(
+				Runtime.getRuntime().availableProcessors());
+		printFailedProjects(scheduler.run(projects,
+				project -> task.ingest(manifestsByKey.get(project.getProjectKey()))));
+	}
+
+	private static void printFailedProjects(List<Project> failed) {
+		if (failed.isEmpty()) {
+			return;
+		}
+		System.out.println("\n" + failed.size() + " projects failed:");
+		failed.forEach(project -> System.out.println(project.getProjectKey()));
+	}
+
+	private static void projectsAndFilesMetrics() throws IOException, InterruptedException {
 		System.out.println("\nRetrieving files and metrics");
 
 		ProjectFilesRetriever pfr = new ProjectFilesRetriever.Builder(SONAR_API_URL)
-				.maxRequestsToWait(25).timeToWaitInMiliSecondsBetWeenRequests(10_000).build();
-		List<Project> projects = Utils.retrieveCollectionFromJSONFile(PROJECTS_LIST, Project.class);
-		List<ProjectFiles> projectFilesList = pfr.retrieve(projects);
-
-		projectFilesList.forEach(projectFiles -> {
-			try {
-				Utils.writeObjToFileAsJSON(projectFiles, FILES_METRICS_DIRECTORY + Utils
-						.sanitizeProjectName(projectFiles.getProject().getProjectName() + ".json"));
-			} catch (IOException e) {
-				e.printStackTrace();
+				.httpExecutor(HTTP_EXECUTOR).build();
+		String stage = stageOf(FILES_METRICS_DIRECTORY);
+		List<Project> projects = journal.pending(stage,
+				Utils.retrieveCollectionFromJSONFile(PROJECTS_LIST, Project.class));
+
+		List<Project> failed = PROJECT_SCHEDULER.run(projects, journal.journaled(stage, project -> {
+			if (ARCHIVE_RAW_PAGES) {
+				pfr.archive(project, PAGE_ARCHIVE, stage);
+				return;
 			}
-		});
+			ProjectFiles projectFiles = pfr.retrieve(project);
+			Utils.writeObjToFileAsJSON(projectFiles, FILES_METRICS_DIRECTORY
+					+ Utils.sanitizeProjectName(project.getProjectName() + ".json"));
+		}));
+
+		printFailedProjects(failed);
 	}
 
 }
@@ -0,0 +1,106 @@
+package br.unb.cloudissues.analysis;
+
+import java.util.Map;
+
+import br.unb.cloudissues.model.ProjectFile;
+
+/**
+ * Number of issues of a file and how dense they are relative to its size and
+ * complexity. Densities are {@code null} when the metric is missing or zero.
+ */
+public class FileIssueDensity {
+
+	public static final String NCLOC = "ncloc";
+	public static final String COMPLEXITY = "complexity";
+	public static final String COGNITIVE_COMPLEXITY = "cognitive_complexity";
+
+	private final String projectKey;
+
+	private final String path;
+
+	private final long issues;
+
+	private final Double ncloc;
+
+	private final Double complexity;
+
+	private final Double cognitiveComplexity;
+
+	private final Double issuesPerKloc;
+
+	private final Double issuesPerComplexity;
+
+	private final Double issuesPerCognitiveComplexity;
+
+	public FileIssueDensity(String projectKey, String path, ProjectFile file, long issues) {
+		this.projectKey = projectKey;
+		this.path = path;
+		this.issues = issues;
+		Map<String, String> metrics = file.getMetrics();
+		this.ncloc = metricOf(metrics, NCLOC);
+		this.complexity = metricOf(metrics, COMPLEXITY);
+		this.cognitiveComplexity = metricOf(metrics, COGNITIVE_COMPLEXITY);
+		this.issuesPerKloc = ncloc == null ? null : issues / (ncloc / 1000);
+		this.issuesPerComplexity = complexity == null ? null : issues / complexity;
+		this.issuesPerCognitiveComplexity = cognitiveComplexity == null ? null
+				: issues / cognitiveComplexity;
+	}
+
+	private static Double metricOf(Map<String, String> metrics, String metric) {
+		if (metrics == null || metrics.get(metric) == null) {
+			return null;
+		}
+		try {
+			double value = Double.parseDouble(metrics.get(metric));
+			return value > 0 ? value : null;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	public String getProjectKey() {
+		return projectKey;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public long getIssues() {
+		return issues;
+	}
+
+	public Double getNcloc() {
+		return ncloc;
+	}
+
+	public Double getComplexity() {
+		return complexity;
+	}
+
+	public Double getCognitiveComplexity() {
+		return cognitiveComplexity;
+	}
+
+	public Double getIssuesPerKloc() {
+		return issuesPerKloc;
+	}
+
+	public Double getIssuesPerComplexity() {
+		return issuesPerComplexity;
+	}
+
+	public Double getIssuesPerCognitiveComplexity() {
+		return issuesPerCognitiveComplexity;
+	}
+
+	@Override
+	public String toString() {
+		return "FileIssueDensity [projectKey=" + projectKey + ", path=" + path + ", issues="
+				+ issues + ", ncloc=" + ncloc + ", complexity=" + complexity
+				+ ", cognitiveComplexity=" + cognitiveComplexity + ", issuesPerKloc="
+				+ issuesPerKloc + ", issuesPerComplexity=" + issuesPerComplexity
+				+ ", issuesPerCognitiveComplexity=" + issuesPerCognitiveComplexity + "]";
+	}
+
+}
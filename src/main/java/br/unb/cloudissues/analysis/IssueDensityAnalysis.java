@@ -0,0 +1,193 @@
+package br.unb.cloudissues.analysis;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import br.unb.cloudissues.model.Issue;
+import br.unb.cloudissues.model.ProjectFile;
+import br.unb.cloudissues.model.ProjectFiles;
+import br.unb.cloudissues.model.Violations;
+import br.unb.cloudissues.storage.ViolationsFileReader;
+import br.unb.cloudissues.util.Utils;
+
+/**
+ * Joins issues to the per-file metrics of {@link ProjectFiles} (see
+ * {@code ProjectFilesRetriever}) to compute the {@link FileIssueDensity} of
+ * every file. The files of each project are indexed by path once, then issues
+ * are streamed through the index, so the join is linear in the number of
+ * issues plus files. Violations files are read up to {@code concurrentFiles} at
+ * a time.
+ */
+public class IssueDensityAnalysis {
+
+	private final Map<String, ProjectFilesIndex> indexesByProject = new HashMap<>();
+
+	private final int concurrentFiles;
+
+	private final ViolationsFileReader fileReader = new ViolationsFileReader();
+
+	public IssueDensityAnalysis(Collection<ProjectFiles> projectsFiles, int concurrentFiles) {
+		if (concurrentFiles < 1) {
+			throw new IllegalArgumentException("concurrentFiles must be at least 1");
+		}
+		this.concurrentFiles = concurrentFiles;
+		for (ProjectFiles projectFiles : projectsFiles) {
+			indexesByProject.put(projectFiles.getProject().getProjectKey(),
+					new ProjectFilesIndex(projectFiles));
+		}
+	}
+
+	/**
+	 * @param filesMetricsDirectory the JSON files written by
+	 *                              {@code ProjectFilesRetriever}, one per project.
+	 */
+	public static IssueDensityAnalysis fromDirectory(String filesMetricsDirectory,
+			int concurrentFiles) throws IOException {
+		List<ProjectFiles> projectsFiles = new ArrayList<>();
+		try (Stream<Path> jsonFiles = Utils
+				.retrieveAllJsonFilesFromDirectory(filesMetricsDirectory)) {
+			for (Path jsonFile : jsonFiles.collect(Collectors.toList())) {
+				projectsFiles.add(Utils.readJsonFileAndRetrieveClass(jsonFile.toString(),
+						ProjectFiles.class));
+			}
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		return new IssueDensityAnalysis(projectsFiles, concurrentFiles);
+	}
+
+	/**
+	 * @return the densities of the files of {@code violations}' project.
+	 */
+	public List<FileIssueDensity> analyze(Violations violations) {
+		IssueCounts counts = new IssueCounts();
+		for (Issue issue : violations.getIssues()) {
+			counts.count(violations.getProjectKey(), issue);
+		}
+		return densitiesOf(violations.getProjectKey(),
+				counts.byProject.getOrDefault(violations.getProjectKey(), new HashMap<>()));
+	}
+
+	/**
+	 * @return the densities of the files of every project with metrics, by
+	 *         project key; files without issues have a density of 0.
+	 */
+	public Map<String, List<FileIssueDensity>> analyze(List<Path> violationsFiles)
+			throws IOException, InterruptedException {
+		IssueCounts counts = new IssueCounts();
+		if (!violationsFiles.isEmpty()) {
+			ExecutorService executor = Executors
+					.newFixedThreadPool(Math.min(concurrentFiles, violationsFiles.size()));
+			try {
+				CompletionService<IssueCounts> completionService = new ExecutorCompletionService<>(
+						executor);
+				for (Path file : violationsFiles) {
+					completionService.submit(() -> count(file));
+				}
+				for (int finished = 0; finished < violationsFiles.size(); finished++) {
+					counts.merge(waitForNext(completionService));
+				}
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+		if (counts.unmatched > 0) {
+			System.out.println("\n" + counts.unmatched + " issues without file metrics");
+		}
+
+		Map<String, List<FileIssueDensity>> densitiesByProject = new TreeMap<>();
+		for (String projectKey : indexesByProject.keySet()) {
+			densitiesByProject.put(projectKey, densitiesOf(projectKey,
+					counts.byProject.getOrDefault(projectKey, new HashMap<>())));
+		}
+		return densitiesByProject;
+	}
+
+	private IssueCounts waitForNext(CompletionService<IssueCounts> completionService)
+			throws IOException, InterruptedException {
+		try {
+			return completionService.take().get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private IssueCounts count(Path violationsFile) throws IOException {
+		IssueCounts counts = new IssueCounts();
+		fileReader.forEachIssue(violationsFile, counts::count);
+		return counts;
+	}
+
+	/**
+	 * @return the densities of the indexed files of the project, densest per KLOC
+	 *         first.
+	 */
+	private List<FileIssueDensity> densitiesOf(String projectKey, Map<String, long[]> counts) {
+		ProjectFilesIndex index = indexesByProject.get(projectKey);
+		if (index == null) {
+			return new ArrayList<>();
+		}
+		List<FileIssueDensity> densities = new ArrayList<>(index.size());
+		index.getFilesByPath().forEach((path, file) -> {
+			long[] issues = counts.get(path);
+			densities.add(
+					new FileIssueDensity(projectKey, path, file, issues == null ? 0 : issues[0]));
+		});
+		densities.sort(Comparator
+				.comparing(FileIssueDensity::getIssuesPerKloc,
+						Comparator.nullsLast(Comparator.reverseOrder()))
+				.thenComparing(FileIssueDensity::getPath));
+		return densities;
+	}
+
+	/**
+	 * Issues by project and path of the files they are in; issues of files
+	 * without metrics are only counted as unmatched.
+	 */
+	private class IssueCounts {
+
+		private final Map<String, Map<String, long[]>> byProject = new HashMap<>();
+
+		private long unmatched;
+
+		void count(String projectKey, Issue issue) {
+			ProjectFilesIndex index = indexesByProject.get(projectKey);
+			ProjectFile file = index == null ? null : index.lookup(issue.getComponent());
+			if (file == null) {
+				unmatched++;
+				return;
+			}
+			add(projectKey, ProjectFilesIndex.normalize(file.getSonarPath()), 1);
+		}
+
+		private void add(String projectKey, String path, long issues) {
+			byProject.computeIfAbsent(projectKey, key -> new HashMap<>())
+					.computeIfAbsent(path, key -> new long[1])[0] += issues;
+		}
+
+		void merge(IssueCounts other) {
+			other.byProject.forEach((projectKey, counts) -> counts
+					.forEach((path, issues) -> add(projectKey, path, issues[0])));
+			unmatched += other.unmatched;
+		}
+	}
+
+}
@@ -0,0 +1,123 @@
+package br.unb.cloudissues.analysis;
+
+/**
+ * Histogram of non-negative durations (e.g. seconds) with log-scaled buckets:
+ * values below 16 are counted exactly and every power of two above is split in
+ * 16 buckets, so percentiles are within about 6% of the real value. Memory is
+ * fixed whatever the number of values recorded. Not thread-safe; record into one
+ * histogram per thread and {@link #merge(LatencyHistogram)} them.
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	// enough buckets for Long.MAX_VALUE
+	private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final long[] counts = new long[BUCKETS];
+
+	private long count;
+
+	private long sum;
+
+	private long min = Long.MAX_VALUE;
+
+	private long max = Long.MIN_VALUE;
+
+	/**
+	 * Negative values (e.g. the -1 of an issue that was never fixed) are ignored.
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			return;
+		}
+		counts[bucketOf(value)]++;
+		count++;
+		sum += value;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Adds the values of {@code other} to this histogram.
+	 * 
+	 * @return this histogram.
+	 */
+	public LatencyHistogram merge(LatencyHistogram other) {
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			counts[bucket] += other.counts[bucket];
+		}
+		count += other.count;
+		sum += other.sum;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+		return this;
+	}
+
+	static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BUCKET_BITS;
+		int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+		return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+	}
+
+	static long lowerBoundOf(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+		long subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+		return (SUB_BUCKETS + subBucket) << shift;
+	}
+
+	/**
+	 * @param percentile between 0 and 100.
+	 * @return the value below which {@code percentile}% of the values are, as the
+	 *         middle of its bucket; 0 if nothing was recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += counts[bucket];
+			if (seen >= rank) {
+				long lower = lowerBoundOf(bucket);
+				long upper = bucket + 1 < BUCKETS ? lowerBoundOf(bucket + 1) - 1 : Long.MAX_VALUE;
+				long middle = lower + (upper - lower) / 2;
+				return Math.max(min, Math.min(max, middle));
+			}
+		}
+		return max;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public double getMean() {
+		return count == 0 ? 0 : (double) sum / count;
+	}
+
+	/**
+	 * @return the smallest value recorded, 0 if none.
+	 */
+	public long getMin() {
+		return count == 0 ? 0 : min;
+	}
+
+	/**
+	 * @return the largest value recorded, 0 if none.
+	 */
+	public long getMax() {
+		return count == 0 ? 0 : max;
+	}
+
+}
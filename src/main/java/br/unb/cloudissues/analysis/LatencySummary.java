@@ -0,0 +1,73 @@
+package br.unb.cloudissues.analysis;
+
+/**
+ * Statistics of a {@link LatencyHistogram}, in the unit it was recorded in.
+ */
+public class LatencySummary {
+
+	private final String key;
+
+	private final long count;
+
+	private final double mean;
+
+	private final long p50;
+
+	private final long p90;
+
+	private final long p99;
+
+	private final long min;
+
+	private final long max;
+
+	public LatencySummary(String key, LatencyHistogram histogram) {
+		this.key = key;
+		this.count = histogram.getCount();
+		this.mean = histogram.getMean();
+		this.p50 = histogram.getValueAtPercentile(50);
+		this.p90 = histogram.getValueAtPercentile(90);
+		this.p99 = histogram.getValueAtPercentile(99);
+		this.min = histogram.getMin();
+		this.max = histogram.getMax();
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public double getMean() {
+		return mean;
+	}
+
+	public long getP50() {
+		return p50;
+	}
+
+	public long getP90() {
+		return p90;
+	}
+
+	public long getP99() {
+		return p99;
+	}
+
+	public long getMin() {
+		return min;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	@Override
+	public String toString() {
+		return "LatencySummary [key=" + key + ", count=" + count + ", mean=" + mean + ", p50="
+				+ p50 + ", p90=" + p90 + ", p99=" + p99 + ", min=" + min + ", max=" + max + "]";
+	}
+
+}
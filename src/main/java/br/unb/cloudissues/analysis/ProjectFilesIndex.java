@@ -0,0 +1,59 @@
+package br.unb.cloudissues.analysis;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import br.unb.cloudissues.model.ProjectFile;
+import br.unb.cloudissues.model.ProjectFiles;
+import br.unb.cloudissues.model.Violations;
+
+/**
+ * Hash index of the files of a project by path without the project key, so an
+ * issue's component finds its file in constant time whatever the branch or
+ * module prefix of the keys.
+ */
+public class ProjectFilesIndex {
+
+	private final ProjectFiles projectFiles;
+
+	private final Map<String, ProjectFile> filesByPath;
+
+	public ProjectFilesIndex(ProjectFiles projectFiles) {
+		this.projectFiles = projectFiles;
+		Collection<ProjectFile> files = projectFiles.getFiles();
+		filesByPath = new HashMap<>(files.size() * 4 / 3 + 1);
+		for (ProjectFile file : files) {
+			filesByPath.put(normalize(file.getSonarPath()), file);
+		}
+	}
+
+	/**
+	 * @return the path used as key: {@code component} without its project key.
+	 */
+	public static String normalize(String component) {
+		return Violations.removeProjectKeyFromFilePath.apply(component);
+	}
+
+	/**
+	 * @return the file of the issue's {@code component}, {@code null} if the
+	 *         project has no such file.
+	 */
+	public ProjectFile lookup(String component) {
+		return component == null ? null : filesByPath.get(normalize(component));
+	}
+
+	public Map<String, ProjectFile> getFilesByPath() {
+		return Collections.unmodifiableMap(filesByPath);
+	}
+
+	public ProjectFiles getProjectFiles() {
+		return projectFiles;
+	}
+
+	public int size() {
+		return filesByPath.size();
+	}
+
+}
@@ -0,0 +1,102 @@
+package br.unb.cloudissues.analysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Number of violations of each rule. Counters are primitive cells updated in
+ * place, so counting does not box a Long per issue. Not thread-safe; count into
+ * one instance per thread and {@link #merge(RuleFrequencies)} them.
+ */
+public class RuleFrequencies {
+
+	private final Map<String, long[]> countsByRule = new HashMap<>();
+
+	public void increment(String rule) {
+		add(rule, 1);
+	}
+
+	public void add(String rule, long count) {
+		if (rule == null) {
+			return;
+		}
+		countsByRule.computeIfAbsent(rule, key -> new long[1])[0] += count;
+	}
+
+	/**
+	 * Adds the counts of {@code other} to these counts.
+	 * 
+	 * @return these counts.
+	 */
+	public RuleFrequencies merge(RuleFrequencies other) {
+		other.countsByRule.forEach((rule, count) -> add(rule, count[0]));
+		return this;
+	}
+
+	public long get(String rule) {
+		long[] count = countsByRule.get(rule);
+		return count == null ? 0 : count[0];
+	}
+
+	public int size() {
+		return countsByRule.size();
+	}
+
+	/**
+	 * Keeps the {@code k} most frequent rules in a min-heap of size {@code k}, so
+	 * only those are ever sorted. Same order as
+	 * {@link br.unb.cloudissues.util.Utils#reverseFrequencyMapByDescendingValue(Map)},
+	 * ties broken by rule.
+	 * 
+	 * @return the {@code k} most frequent rules, most frequent first.
+	 */
+	public Map<String, Long> top(int k) {
+		if (k < 1) {
+			throw new IllegalArgumentException("k must be at least 1");
+		}
+		PriorityQueue<RuleCount> heap = new PriorityQueue<>(k + 1);
+		countsByRule.forEach((rule, count) -> {
+			RuleCount candidate = new RuleCount(rule, count[0]);
+			if (heap.size() < k) {
+				heap.add(candidate);
+			} else if (candidate.compareTo(heap.peek()) > 0) {
+				heap.poll();
+				heap.add(candidate);
+			}
+		});
+
+		List<RuleCount> top = new ArrayList<>(heap);
+		Collections.sort(top, Collections.reverseOrder());
+		Map<String, Long> result = new LinkedHashMap<>();
+		top.forEach(ruleCount -> result.put(ruleCount.rule, ruleCount.count));
+		return result;
+	}
+
+	/**
+	 * Ordered by count, then by reverse rule so that, between equal counts, the
+	 * first rule in alphabetical order is the greatest.
+	 */
+	private static class RuleCount implements Comparable<RuleCount> {
+
+		private final String rule;
+
+		private final long count;
+
+		RuleCount(String rule, long count) {
+			this.rule = rule;
+			this.count = count;
+		}
+
+		@Override
+		public int compareTo(RuleCount other) {
+			int byCount = Long.compare(count, other.count);
+			return byCount != 0 ? byCount : other.rule.compareTo(rule);
+		}
+	}
+
+}
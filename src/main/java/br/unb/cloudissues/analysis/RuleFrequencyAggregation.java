@@ -0,0 +1,87 @@
+package br.unb.cloudissues.analysis;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import br.unb.cloudissues.storage.ViolationsFileReader;
+
+/**
+ * Counts the violations of each rule in the violations files (JSON, NDJSON or
+ * {@code IssueStore}) of one or more directories. Files are split among the
+ * threads of a fork-join pool; each leaf streams its file into its own
+ * {@link RuleFrequencies}, which are merged while joining, so no file is ever
+ * fully loaded and no counter is shared.
+ */
+public class RuleFrequencyAggregation {
+
+	private final ForkJoinPool pool;
+
+	private final ViolationsFileReader fileReader = new ViolationsFileReader();
+
+	public RuleFrequencyAggregation(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	public RuleFrequencyAggregation() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	public RuleFrequencies aggregateDirectories(List<String> directories) throws IOException {
+		List<Path> files = new ArrayList<>();
+		for (String directory : directories) {
+			files.addAll(ViolationsFileReader.violationsFilesIn(directory));
+		}
+		return aggregate(files);
+	}
+
+	public RuleFrequencies aggregate(List<Path> files) throws IOException {
+		try {
+			return pool.invoke(new CountTask(files));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	private RuleFrequencies count(Path file) {
+		RuleFrequencies frequencies = new RuleFrequencies();
+		try {
+			fileReader.forEachIssue(file,
+					(projectKey, issue) -> frequencies.increment(issue.getRule()));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return frequencies;
+	}
+
+	private class CountTask extends RecursiveTask<RuleFrequencies> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<Path> files;
+
+		CountTask(List<Path> files) {
+			this.files = files;
+		}
+
+		@Override
+		protected RuleFrequencies compute() {
+			if (files.isEmpty()) {
+				return new RuleFrequencies();
+			}
+			if (files.size() == 1) {
+				return count(files.get(0));
+			}
+			int middle = files.size() / 2;
+			CountTask left = new CountTask(files.subList(0, middle));
+			left.fork();
+			RuleFrequencies right = new CountTask(files.subList(middle, files.size())).compute();
+			return left.join().merge(right);
+		}
+	}
+
+}
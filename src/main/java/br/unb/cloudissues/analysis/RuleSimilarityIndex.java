@@ -0,0 +1,250 @@
+package br.unb.cloudissues.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import br.unb.cloudissues.model.Rule;
+import br.unb.cloudissues.model.SimilarRule;
+import br.unb.cloudissues.util.StringDictionary;
+
+/**
+ * Cosine similarity between rules, on TF-IDF vectors of the tokens of their
+ * names and keys. Vectors are built once, as sorted term ids and weights in
+ * primitive arrays, with an inverted index from each term to the rules using
+ * it: a query only visits the rules sharing a term with it, and keeps the best
+ * {@code k} in a bounded heap. Immutable once built, so queries can run in
+ * parallel.
+ */
+public class RuleSimilarityIndex {
+
+	private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList("a", "an", "and",
+			"are", "as", "be", "by", "for", "in", "is", "it", "of", "on", "or", "should", "the",
+			"to", "with"));
+
+	// lowest score first, the head of a bounded top-k heap
+	private static final Comparator<SimilarRule> WORST_FIRST = Comparator
+			.comparing(SimilarRule::getScore)
+			.thenComparing(SimilarRule::getRuleKey, Comparator.reverseOrder());
+
+	private final List<Rule> rules;
+
+	private final Map<String, Integer> idsByKey = new HashMap<>();
+
+	private final StringDictionary terms = new StringDictionary();
+
+	private final float[] inverseDocumentFrequencies;
+
+	// vector of each rule: sorted term ids and their normalized weights
+	private final int[][] termIds;
+
+	private final float[][] weights;
+
+	// inverted index: rules using each term, with the term's weight in the rule
+	private final int[][] postingRuleIds;
+
+	private final float[][] postingWeights;
+
+	public RuleSimilarityIndex(List<Rule> rules) {
+		this.rules = new ArrayList<>(rules);
+		int ruleCount = this.rules.size();
+
+		List<Map<Integer, Integer>> termFrequencies = new ArrayList<>(ruleCount);
+		for (int id = 0; id < ruleCount; id++) {
+			Rule rule = this.rules.get(id);
+			idsByKey.put(rule.getKey(), id);
+			Map<Integer, Integer> frequencies = new HashMap<>();
+			for (String token : tokensOf(rule)) {
+				frequencies.merge(terms.encode(token), 1, Integer::sum);
+			}
+			termFrequencies.add(frequencies);
+		}
+
+		int[] documentFrequencies = new int[terms.size()];
+		termFrequencies.forEach(frequencies -> frequencies.keySet()
+				.forEach(term -> documentFrequencies[term]++));
+		inverseDocumentFrequencies = new float[terms.size()];
+		for (int term = 0; term < terms.size(); term++) {
+			inverseDocumentFrequencies[term] = inverseDocumentFrequency(ruleCount,
+					documentFrequencies[term]);
+		}
+
+		termIds = new int[ruleCount][];
+		weights = new float[ruleCount][];
+		for (int id = 0; id < ruleCount; id++) {
+			termIds[id] = new int[termFrequencies.get(id).size()];
+			weights[id] = new float[termIds[id].length];
+			vectorize(termFrequencies.get(id), termIds[id], weights[id]);
+		}
+
+		postingRuleIds = new int[terms.size()][];
+		postingWeights = new float[terms.size()][];
+		int[] filled = new int[terms.size()];
+		for (int term = 0; term < terms.size(); term++) {
+			postingRuleIds[term] = new int[documentFrequencies[term]];
+			postingWeights[term] = new float[documentFrequencies[term]];
+		}
+		for (int id = 0; id < ruleCount; id++) {
+			for (int i = 0; i < termIds[id].length; i++) {
+				int term = termIds[id][i];
+				postingRuleIds[term][filled[term]] = id;
+				postingWeights[term][filled[term]] = weights[id][i];
+				filled[term]++;
+			}
+		}
+	}
+
+	private static float inverseDocumentFrequency(int documents, int documentFrequency) {
+		return (float) (Math.log((1.0 + documents) / (1.0 + documentFrequency)) + 1);
+	}
+
+	/**
+	 * Fills {@code ids} and {@code values} with the sorted term ids of
+	 * {@code frequencies} and their L2-normalized TF-IDF weights.
+	 */
+	private void vectorize(Map<Integer, Integer> frequencies, int[] ids, float[] values) {
+		int i = 0;
+		for (Integer term : frequencies.keySet()) {
+			ids[i++] = term;
+		}
+		Arrays.sort(ids);
+		double norm = 0;
+		for (i = 0; i < ids.length; i++) {
+			values[i] = frequencies.get(ids[i]) * inverseDocumentFrequencies[ids[i]];
+			norm += values[i] * values[i];
+		}
+		norm = Math.sqrt(norm);
+		for (i = 0; i < values.length; i++) {
+			values[i] /= norm;
+		}
+	}
+
+	/**
+	 * Splits the name and key of {@code rule} into lower case words, also at camel
+	 * case boundaries, without stop words.
+	 */
+	static List<String> tokensOf(Rule rule) {
+		List<String> tokens = new ArrayList<>();
+		addTokens(rule.getName(), tokens);
+		addTokens(rule.getKey(), tokens);
+		return tokens;
+	}
+
+	private static void addTokens(String text, List<String> tokens) {
+		if (text == null) {
+			return;
+		}
+		String spaced = text.replaceAll("([a-z])([A-Z])", "$1 $2");
+		for (String token : spaced.toLowerCase().split("[^a-z0-9]+")) {
+			if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+				tokens.add(token);
+			}
+		}
+	}
+
+	/**
+	 * @return the {@code k} rules most similar to the rule with {@code ruleKey},
+	 *         most similar first, without the rule itself; empty for an unknown
+	 *         rule.
+	 */
+	public List<SimilarRule> similarTo(String ruleKey, int k) {
+		Integer id = idsByKey.get(ruleKey);
+		if (id == null) {
+			return new ArrayList<>();
+		}
+		return topK(termIds[id], weights[id], id, k);
+	}
+
+	/**
+	 * @return the {@code k} rules most similar to an arbitrary {@code text},
+	 *         e.g. a rule description; words unknown to the catalog are ignored.
+	 */
+	public List<SimilarRule> similarToText(String text, int k) {
+		List<String> tokens = new ArrayList<>();
+		addTokens(text, tokens);
+		Map<Integer, Integer> frequencies = new HashMap<>();
+		for (String token : tokens) {
+			int term = terms.codeOf(token);
+			if (term != StringDictionary.NULL_CODE) {
+				frequencies.merge(term, 1, Integer::sum);
+			}
+		}
+		int[] ids = new int[frequencies.size()];
+		float[] values = new float[ids.length];
+		if (ids.length > 0) {
+			vectorize(frequencies, ids, values);
+		}
+		return topK(ids, values, -1, k);
+	}
+
+	private List<SimilarRule> topK(int[] queryTerms, float[] queryWeights, int excludedId,
+			int k) {
+		if (k < 1) {
+			throw new IllegalArgumentException("k must be at least 1");
+		}
+		float[] scores = new float[rules.size()];
+		int[] touched = new int[rules.size()];
+		int touchedCount = 0;
+		for (int i = 0; i < queryTerms.length; i++) {
+			int term = queryTerms[i];
+			for (int p = 0; p < postingRuleIds[term].length; p++) {
+				int id = postingRuleIds[term][p];
+				if (scores[id] == 0) {
+					touched[touchedCount++] = id;
+				}
+				scores[id] += queryWeights[i] * postingWeights[term][p];
+			}
+		}
+
+		PriorityQueue<SimilarRule> heap = new PriorityQueue<>(k + 1, WORST_FIRST);
+		for (int t = 0; t < touchedCount; t++) {
+			int id = touched[t];
+			if (id == excludedId) {
+				continue;
+			}
+			Rule rule = rules.get(id);
+			SimilarRule candidate = new SimilarRule(rule.getKey(), rule.getName(), scores[id]);
+			if (heap.size() < k) {
+				heap.add(candidate);
+			} else if (WORST_FIRST.compare(candidate, heap.peek()) > 0) {
+				heap.poll();
+				heap.add(candidate);
+			}
+		}
+		List<SimilarRule> top = new ArrayList<>(heap);
+		Collections.sort(top, WORST_FIRST.reversed());
+		return top;
+	}
+
+	/**
+	 * Runs {@link #similarTo(String, int)} for every rule, in parallel.
+	 * 
+	 * @return the {@code k} most similar rules of each rule, by rule key in
+	 *         catalog order.
+	 */
+	public Map<String, List<SimilarRule>> allPairs(int k) {
+		List<List<SimilarRule>> similar = IntStream.range(0, rules.size()).parallel()
+				.mapToObj(id -> topK(termIds[id], weights[id], id, k))
+				.collect(Collectors.toList());
+		Map<String, List<SimilarRule>> similarByKey = new LinkedHashMap<>();
+		for (int id = 0; id < rules.size(); id++) {
+			similarByKey.put(rules.get(id).getKey(), similar.get(id));
+		}
+		return similarByKey;
+	}
+
+	public int size() {
+		return rules.size();
+	}
+
+}
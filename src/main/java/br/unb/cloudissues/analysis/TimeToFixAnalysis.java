@@ -0,0 +1,101 @@
+package br.unb.cloudissues.analysis;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import br.unb.cloudissues.storage.IssueStore;
+import br.unb.cloudissues.storage.IssueTable;
+import br.unb.cloudissues.storage.ViolationsFileReader;
+
+/**
+ * Computes the {@link TimeToFixStatistics} of the violations files of a
+ * directory (JSON, NDJSON or {@link IssueStore} files), streaming each file
+ * instead of loading it and reading up to {@code concurrentFiles} files at the
+ * same time, each into its own statistics, merged as files finish.
+ */
+public class TimeToFixAnalysis {
+
+	private final int concurrentFiles;
+
+	private final ViolationsFileReader fileReader = new ViolationsFileReader();
+
+	public TimeToFixAnalysis(int concurrentFiles) {
+		if (concurrentFiles < 1) {
+			throw new IllegalArgumentException("concurrentFiles must be at least 1");
+		}
+		this.concurrentFiles = concurrentFiles;
+	}
+
+	public TimeToFixAnalysis() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public TimeToFixStatistics analyzeDirectory(String directory)
+			throws IOException, InterruptedException {
+		return analyze(ViolationsFileReader.violationsFilesIn(directory));
+	}
+
+	public TimeToFixStatistics analyze(List<Path> files) throws IOException, InterruptedException {
+		TimeToFixStatistics statistics = new TimeToFixStatistics();
+		if (files.isEmpty()) {
+			return statistics;
+		}
+
+		ExecutorService executor = Executors
+				.newFixedThreadPool(Math.min(concurrentFiles, files.size()));
+		try {
+			CompletionService<TimeToFixStatistics> completionService = new ExecutorCompletionService<>(
+					executor);
+			for (Path file : files) {
+				completionService.submit(() -> analyze(file));
+			}
+			for (int finished = 0; finished < files.size(); finished++) {
+				statistics.merge(waitForNext(completionService));
+			}
+			return statistics;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private TimeToFixStatistics waitForNext(
+			CompletionService<TimeToFixStatistics> completionService)
+			throws IOException, InterruptedException {
+		try {
+			return completionService.take().get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * @return the statistics of a single file.
+	 */
+	public TimeToFixStatistics analyze(Path file) throws IOException {
+		TimeToFixStatistics statistics = new TimeToFixStatistics();
+		if (file.getFileName().toString().endsWith(IssueStore.EXTENSION)) {
+			// columns are read as is, no Issue is ever built
+			IssueTable table = IssueStore.read(file);
+			String projectKey = table.getProject() == null ? null
+					: table.getProject().getProjectKey();
+			IssueTable.Cursor cursor = table.cursor();
+			while (cursor.next()) {
+				statistics.accept(projectKey, cursor.getRule(), cursor.getTimeToFixAsSeconds());
+			}
+		} else {
+			fileReader.forEachIssue(file, (projectKey, issue) -> statistics.accept(projectKey,
+					issue.getRule(), issue.getTimeToFixAsSeconds()));
+		}
+		return statistics;
+	}
+
+}
@@ -0,0 +1,90 @@
+package br.unb.cloudissues.analysis;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Times to fix of a set of issues, in seconds, as one {@link LatencyHistogram}
+ * per rule and per project. Memory grows with the number of rules and projects,
+ * not with the number of issues. Not thread-safe; fill one instance per thread
+ * and {@link #merge(TimeToFixStatistics)} them.
+ */
+public class TimeToFixStatistics {
+
+	private final Map<String, LatencyHistogram> byRule = new HashMap<>();
+
+	private final Map<String, LatencyHistogram> byProject = new HashMap<>();
+
+	private final LatencyHistogram overall = new LatencyHistogram();
+
+	/**
+	 * Records the time to fix of one issue; negative times (issues without a
+	 * close date) are ignored.
+	 */
+	public void accept(String projectKey, String rule, long timeToFixInSeconds) {
+		if (timeToFixInSeconds < 0) {
+			return;
+		}
+		if (rule != null) {
+			byRule.computeIfAbsent(rule, key -> new LatencyHistogram())
+					.record(timeToFixInSeconds);
+		}
+		if (projectKey != null) {
+			byProject.computeIfAbsent(projectKey, key -> new LatencyHistogram())
+					.record(timeToFixInSeconds);
+		}
+		overall.record(timeToFixInSeconds);
+	}
+
+	/**
+	 * Adds the times of {@code other} to these statistics.
+	 * 
+	 * @return these statistics.
+	 */
+	public TimeToFixStatistics merge(TimeToFixStatistics other) {
+		mergeInto(byRule, other.byRule);
+		mergeInto(byProject, other.byProject);
+		overall.merge(other.overall);
+		return this;
+	}
+
+	private static void mergeInto(Map<String, LatencyHistogram> target,
+			Map<String, LatencyHistogram> source) {
+		source.forEach((key, histogram) -> target
+				.computeIfAbsent(key, k -> new LatencyHistogram()).merge(histogram));
+	}
+
+	/**
+	 * @return one summary per rule, most fixed rules first.
+	 */
+	public List<LatencySummary> summariesByRule() {
+		return summariesOf(byRule);
+	}
+
+	/**
+	 * @return one summary per project, projects with the most fixes first.
+	 */
+	public List<LatencySummary> summariesByProject() {
+		return summariesOf(byProject);
+	}
+
+	public LatencySummary getOverallSummary() {
+		return new LatencySummary("all", overall);
+	}
+
+	private static List<LatencySummary> summariesOf(Map<String, LatencyHistogram> histograms) {
+		return histograms.entrySet().stream()
+				.map(entry -> new LatencySummary(entry.getKey(), entry.getValue()))
+				.sorted(Comparator.comparingLong(LatencySummary::getCount).reversed()
+						.thenComparing(LatencySummary::getKey))
+				.collect(Collectors.toList());
+	}
+
+	public long getCount() {
+		return overall.getCount();
+	}
+
+}
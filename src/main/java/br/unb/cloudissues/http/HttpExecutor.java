@@ -0,0 +1,290 @@
+package br.unb.cloudissues.http;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import br.unb.cloudissues.util.HttpClients;
+import br.unb.cloudissues.util.Utils;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Single place where retrievers send their requests: takes a token from the
+ * {@link RateLimiter}, retries throttled and failed requests according to the
+ * {@link RetryPolicy} and, when a {@link ResponseCache} is configured, serves
+ * and stores bodies from disk. Only successful bodies reach a
+ * {@link BodyReader}; anything else ends in a {@link HttpRequestException}.
+ */
+public class HttpExecutor {
+
+	@FunctionalInterface
+	public interface BodyReader<T> {
+		T read(Reader body) throws IOException;
+	}
+
+	/**
+	 * Handles a successful response, before it is closed.
+	 */
+	@FunctionalInterface
+	private interface SuccessHandler<T> {
+		T handle(Response response) throws IOException;
+	}
+
+	private static final HttpExecutor SHARED = new Builder().build();
+
+	private static final int BODY_EXCERPT_LENGTH = 200;
+
+	private final OkHttpClient httpClient;
+
+	private final RateLimiter rateLimiter;
+
+	private final ResponseCache responseCache;
+
+	private final RetryPolicy retryPolicy;
+
+	private HttpExecutor(Builder builder) {
+		httpClient = Optional.ofNullable(builder.httpClient).orElse(HttpClients.shared());
+		rateLimiter = Optional.ofNullable(builder.rateLimiter).orElse(RateLimiter.shared());
+		responseCache = builder.responseCache;
+		retryPolicy = Optional.ofNullable(builder.retryPolicy).orElseGet(RetryPolicy::defaultPolicy);
+	}
+
+	public static class Builder {
+
+		private OkHttpClient httpClient;
+		private RateLimiter rateLimiter;
+		private ResponseCache responseCache;
+		private RetryPolicy retryPolicy;
+
+		public Builder httpClient(OkHttpClient httpClient) {
+			this.httpClient = httpClient;
+			return this;
+		}
+
+		public Builder rateLimiter(RateLimiter rateLimiter) {
+			this.rateLimiter = rateLimiter;
+			return this;
+		}
+
+		/**
+		 * Without a cache every request goes to the network.
+		 */
+		public Builder responseCache(ResponseCache responseCache) {
+			this.responseCache = responseCache;
+			return this;
+		}
+
+		public Builder retryPolicy(RetryPolicy retryPolicy) {
+			this.retryPolicy = retryPolicy;
+			return this;
+		}
+
+		public HttpExecutor build() {
+			return new HttpExecutor(this);
+		}
+	}
+
+	/**
+	 * @return the executor used by retrievers that were not given one explicitly.
+	 */
+	public static HttpExecutor shared() {
+		return SHARED;
+	}
+
+	/**
+	 * @return an executor sharing this one's limiter, cache and retry budget, but sending
+	 *         requests through {@code httpClient}.
+	 */
+	public HttpExecutor withHttpClient(OkHttpClient httpClient) {
+		return new Builder().httpClient(httpClient).rateLimiter(rateLimiter)
+				.responseCache(responseCache).retryPolicy(retryPolicy).build();
+	}
+
+	public <T> T execute(String url, BodyReader<T> bodyReader)
+			throws IOException, InterruptedException {
+		return execute(new Request.Builder().url(url).build(), bodyReader);
+	}
+
+	public <T> T execute(Request request, BodyReader<T> bodyReader)
+			throws IOException, InterruptedException {
+		Objects.requireNonNull(request);
+		Objects.requireNonNull(bodyReader);
+		String url = request.url().toString();
+
+		if (responseCache != null) {
+			Optional<Path> cached = responseCache.lookup(url);
+			if (cached.isPresent()) {
+				return readCached(cached.get(), bodyReader);
+			}
+			if (responseCache.isReplay()) {
+				throw new IOException("Not in the response cache (replay mode): " + url);
+			}
+		}
+		return executeOverNetwork(request, response -> readSuccessful(url, response, bodyReader));
+	}
+
+	/**
+	 * Copies the body of {@code url}, byte for byte and without parsing it, to
+	 * {@code target}, which only appears once fully written. Served from the
+	 * {@link ResponseCache} when it has the body, but never stored there: the
+	 * target already is a copy.
+	 * 
+	 * @return the size of the body, in bytes.
+	 */
+	public long download(String url, Path target) throws IOException, InterruptedException {
+		Objects.requireNonNull(target);
+		Path directory = target.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path tempPath = Utils.createTempFileNextTo(target);
+		try {
+			Optional<Path> cached = responseCache == null ? Optional.empty()
+					: responseCache.lookup(url);
+			if (cached.isPresent()) {
+				Files.copy(cached.get(), tempPath, StandardCopyOption.REPLACE_EXISTING);
+			} else if (responseCache != null && responseCache.isReplay()) {
+				throw new IOException("Not in the response cache (replay mode): " + url);
+			} else {
+				executeOverNetwork(new Request.Builder().url(url).build(),
+						response -> Files.copy(response.body().byteStream(), tempPath,
+								StandardCopyOption.REPLACE_EXISTING));
+			}
+			Files.move(tempPath, target, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tempPath);
+		}
+		return Files.size(target);
+	}
+
+	private <T> T executeOverNetwork(Request request, SuccessHandler<T> successHandler)
+			throws IOException, InterruptedException {
+		String url = request.url().toString();
+		retryPolicy.recordRequest();
+		for (int attempt = 1;; attempt++) {
+			rateLimiter.acquire(url);
+			Response response;
+			try {
+				response = httpClient.newCall(request).execute();
+			} catch (IOException e) {
+				if (!retryPolicy.tryRetry(attempt)) {
+					throw new HttpRequestException(url, attempt, e);
+				}
+				waitBeforeRetry(url, attempt, retryPolicy.backoff(attempt), e.toString());
+				continue;
+			}
+
+			int code = response.code();
+			Duration delay;
+			try {
+				if (response.isSuccessful()) {
+					return successHandler.handle(response);
+				}
+				// error pages are never cached nor parsed
+				if (!RetryPolicy.isRetryableStatus(code) || !retryPolicy.tryRetry(attempt)) {
+					throw new HttpRequestException(url, code, attempt, bodyExcerpt(response));
+				}
+				Optional<Duration> retryAfter = retryAfter(response);
+				delay = retryAfter.isPresent() ? retryAfter.get() : retryPolicy.backoff(attempt);
+				if (code == 429 || retryAfter.isPresent()) {
+					// the whole host is throttled, not only this request
+					rateLimiter.pause(url, delay.toNanos());
+				}
+			} finally {
+				response.close();
+			}
+			waitBeforeRetry(url, attempt, delay, "status " + code);
+		}
+	}
+
+	private <T> T readSuccessful(String url, Response response, BodyReader<T> bodyReader)
+			throws IOException {
+		if (responseCache == null) {
+			return bodyReader.read(response.body().charStream());
+		}
+		Path stored = responseCache.store(url, response.body().byteStream());
+		return readCached(stored, bodyReader);
+	}
+
+	private void waitBeforeRetry(String url, int attempt, Duration delay, String reason)
+			throws InterruptedException {
+		System.out.println("\nAttempt " + attempt + " of " + url + " failed (" + reason
+				+ "), retrying in " + delay.toMillis() + " ms.");
+		TimeUnit.MILLISECONDS.sleep(delay.toMillis());
+	}
+
+	/**
+	 * Reads {@code Retry-After} in either of its forms, delay-seconds or an
+	 * HTTP-date, capped at the policy's maximum backoff.
+	 */
+	private Optional<Duration> retryAfter(Response response) {
+		String header = response.header("Retry-After");
+		if (header == null || header.trim().isEmpty()) {
+			return Optional.empty();
+		}
+		Duration delay;
+		try {
+			delay = Duration.ofSeconds(Long.parseLong(header.trim()));
+		} catch (NumberFormatException notSeconds) {
+			try {
+				Instant at = ZonedDateTime.parse(header.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+						.toInstant();
+				delay = Duration.between(Instant.now(), at);
+			} catch (DateTimeParseException notDate) {
+				return Optional.empty();
+			}
+		}
+		if (delay.isNegative()) {
+			return Optional.of(Duration.ZERO);
+		}
+		Duration max = retryPolicy.getMaxBackoff();
+		return Optional.of(delay.compareTo(max) > 0 ? max : delay);
+	}
+
+	private static String bodyExcerpt(Response response) {
+		try {
+			String body = response.body().string().replaceAll("\\s+", " ").trim();
+			return body.length() <= BODY_EXCERPT_LENGTH ? body
+					: body.substring(0, BODY_EXCERPT_LENGTH) + "...";
+		} catch (IOException e) {
+			return "";
+		}
+	}
+
+	private <T> T readCached(Path path, BodyReader<T> bodyReader) throws IOException {
+		try (Reader body = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			return bodyReader.read(body);
+		}
+	}
+
+	public String executeForString(String url) throws IOException, InterruptedException {
+		return execute(url, HttpExecutor::readFully);
+	}
+
+	public String executeForString(Request request) throws IOException, InterruptedException {
+		return execute(request, HttpExecutor::readFully);
+	}
+
+	private static String readFully(Reader body) throws IOException {
+		StringBuilder content = new StringBuilder();
+		char[] buffer = new char[8192];
+		int read;
+		while ((read = body.read(buffer)) != -1) {
+			content.append(buffer, 0, read);
+		}
+		return content.toString();
+	}
+
+}
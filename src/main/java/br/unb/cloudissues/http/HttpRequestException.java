@@ -0,0 +1,60 @@
+package br.unb.cloudissues.http;
+
+import java.io.IOException;
+
+/**
+ * A request that did not succeed, after all the attempts its
+ * {@link RetryPolicy} allowed.
+ */
+public class HttpRequestException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final int NO_STATUS = -1;
+
+	private final String url;
+
+	private final int statusCode;
+
+	private final int attempts;
+
+	private final String bodyExcerpt;
+
+	public HttpRequestException(String url, int statusCode, int attempts, String bodyExcerpt) {
+		super("GET " + url + " failed with status " + statusCode + " after " + attempts
+				+ " attempt(s): " + bodyExcerpt);
+		this.url = url;
+		this.statusCode = statusCode;
+		this.attempts = attempts;
+		this.bodyExcerpt = bodyExcerpt;
+	}
+
+	public HttpRequestException(String url, int attempts, IOException cause) {
+		super("GET " + url + " failed after " + attempts + " attempt(s): " + cause, cause);
+		this.url = url;
+		this.statusCode = NO_STATUS;
+		this.attempts = attempts;
+		this.bodyExcerpt = "";
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	/**
+	 * @return the last HTTP status received, or {@link #NO_STATUS} if the server
+	 *         could not be reached.
+	 */
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public String getBodyExcerpt() {
+		return bodyExcerpt;
+	}
+
+}
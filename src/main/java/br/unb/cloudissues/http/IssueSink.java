@@ -0,0 +1,20 @@
+package br.unb.cloudissues.http;
+
+import java.io.IOException;
+import java.util.List;
+
+import br.unb.cloudissues.model.Issue;
+
+/**
+ * Receives the issues of a project one page at a time, as soon as each page is
+ * retrieved, so the project's issues never need to be in memory all at once.
+ */
+@FunctionalInterface
+public interface IssueSink {
+
+	/**
+	 * Called once per page, never concurrently for the same sink.
+	 */
+	void accept(List<Issue> page) throws IOException;
+
+}
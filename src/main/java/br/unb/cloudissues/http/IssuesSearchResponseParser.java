@@ -0,0 +1,174 @@
+package br.unb.cloudissues.http;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import br.unb.cloudissues.model.Issue;
+
+/**
+ * Reads an /api/issues/search response token by token, handing each
+ * {@link Issue} to a consumer as soon as it is parsed. The body is never held
+ * as a String nor as a generic map.
+ */
+public class IssuesSearchResponseParser {
+
+	private static final String TOTAL_KEY = "total";
+
+	private final TypeAdapter<Issue> issueAdapter = new Gson().getAdapter(Issue.class);
+
+	/**
+	 * @return the total number of issues matching the query, read from
+	 *         {@code paging.total} (or from {@code total} in older versions).
+	 * @throws IOException if the body is not a valid response or has no total.
+	 */
+	public long parse(Reader body, Consumer<Issue> issueConsumer) throws IOException {
+		return parse(body, issueConsumer, null);
+	}
+
+	/**
+	 * Same as {@link #parse(Reader, Consumer)}, skipping the issues without
+	 * parsing them. Also reads the total of other paged web services, e.g.
+	 * measures/component_tree.
+	 */
+	public long parseTotal(Reader body) throws IOException {
+		return parse(body, null, null);
+	}
+
+	/**
+	 * Same as {@link #parse(Reader, Consumer)}, also handing the counts by value
+	 * of each facet in {@code facets} to {@code facetConsumer}, keyed by the
+	 * facet's property (e.g. {@code rules}).
+	 */
+	public long parse(Reader body, Consumer<Issue> issueConsumer,
+			BiConsumer<String, Map<String, Long>> facetConsumer) throws IOException {
+		try (JsonReader reader = new JsonReader(body)) {
+			Long total = null;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				switch (reader.nextName()) {
+				case TOTAL_KEY:
+					total = reader.nextLong();
+					break;
+				case "paging":
+					total = readPagingTotal(reader);
+					break;
+				case "issues":
+					if (issueConsumer == null) {
+						reader.skipValue();
+					} else {
+						readIssues(reader, issueConsumer);
+					}
+					break;
+				case "facets":
+					if (facetConsumer == null) {
+						reader.skipValue();
+					} else {
+						readFacets(reader, facetConsumer);
+					}
+					break;
+				default:
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+
+			if (total == null) {
+				throw new IOException("issues/search response without total");
+			}
+			return total;
+		} catch (IllegalStateException e) {
+			throw new IOException("Malformed issues/search response", e);
+		}
+	}
+
+	private Long readPagingTotal(JsonReader reader) throws IOException {
+		Long total = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			if (TOTAL_KEY.equals(reader.nextName())) {
+				total = reader.nextLong();
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return total;
+	}
+
+	private void readIssues(JsonReader reader, Consumer<Issue> issueConsumer)
+			throws IOException {
+		if (reader.peek() == JsonToken.NULL) {
+			reader.nextNull();
+			return;
+		}
+		reader.beginArray();
+		while (reader.hasNext()) {
+			issueConsumer.accept(issueAdapter.read(reader));
+		}
+		reader.endArray();
+	}
+
+	private void readFacets(JsonReader reader,
+			BiConsumer<String, Map<String, Long>> facetConsumer) throws IOException {
+		reader.beginArray();
+		while (reader.hasNext()) {
+			String property = null;
+			Map<String, Long> counts = new LinkedHashMap<>();
+			reader.beginObject();
+			while (reader.hasNext()) {
+				switch (reader.nextName()) {
+				case "property":
+					property = reader.nextString();
+					break;
+				case "values":
+					readFacetValues(reader, counts);
+					break;
+				default:
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+			if (property != null) {
+				facetConsumer.accept(property, counts);
+			}
+		}
+		reader.endArray();
+	}
+
+	private void readFacetValues(JsonReader reader, Map<String, Long> counts)
+			throws IOException {
+		reader.beginArray();
+		while (reader.hasNext()) {
+			String value = null;
+			long count = 0;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				switch (reader.nextName()) {
+				case "val":
+					value = reader.nextString();
+					break;
+				case "count":
+					count = reader.nextLong();
+					break;
+				default:
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+			if (value != null) {
+				counts.put(value, count);
+			}
+		}
+		reader.endArray();
+	}
+
+}
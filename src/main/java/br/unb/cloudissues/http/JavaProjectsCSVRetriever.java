@@ -16,14 +16,12 @@ import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
 
 import br.unb.cloudissues.model.Project;
 import br.unb.cloudissues.util.Utils;
-import okhttp3.OkHttpClient;
 import okhttp3.Request;
-import okhttp3.Response;
 
 // https://builds.apache.org/analysis/web_api/api/projects
 public class JavaProjectsCSVRetriever {
 
-	private final OkHttpClient httpClient = new OkHttpClient();
+	private final HttpExecutor httpExecutor;
 
 	private final XmlMapper xmlMapper;
 
@@ -32,6 +30,7 @@ public class JavaProjectsCSVRetriever {
 	private String url;
 
 	public JavaProjectsCSVRetriever(Path projectsCSVPath) {
+		httpExecutor = HttpExecutor.shared();
 		xmlMapper = initXmlMapper();
 		Objects.requireNonNull(projectsCSVPath);
 		this.projectsCSVPath = projectsCSVPath;
@@ -44,39 +43,46 @@ public class JavaProjectsCSVRetriever {
 	}
 
 	public JavaProjectsCSVRetriever(String url) {
+		this(url, HttpExecutor.shared());
+	}
+
+	public JavaProjectsCSVRetriever(String url, HttpExecutor httpExecutor) {
 		xmlMapper = initXmlMapper();
 		Objects.requireNonNull(url);
+		Objects.requireNonNull(httpExecutor);
 		this.url = url;
+		this.httpExecutor = httpExecutor;
 	}
 
-	public List<Project> retrieve() throws IOException {
+	public List<Project> retrieve() throws IOException, InterruptedException {
 		if (url != null) {
 			return retrieveProjectsFromURL();
 		}
 		return retrieveProjectsFromCSVFilePath();
 	}
 
-	private List<Project> retrieveProjectsFromURL() throws IOException {
+	private List<Project> retrieveProjectsFromURL() throws IOException, InterruptedException {
 		return mapProjectsAsXmlToProjectsList(retrieveProjectsAsMapsFromXMLResponse());
 	}
 
 	private List<LinkedHashMap<String, String>> retrieveProjectsAsMapsFromXMLResponse()
-			throws IOException {
+			throws IOException, InterruptedException {
 		String xmlAsString = retrieveResponseBodyForURL(url);
 		Projects projects = xmlMapper.readValue(xmlAsString, Projects.class);
 		return projects.projectsListOfMaps;
 	}
 
-	private String retrieveResponseBodyForURL(String url) throws IOException {
+	private String retrieveResponseBodyForURL(String url)
+			throws IOException, InterruptedException {
 		System.out.println("\nRetrieving projects in " + url);
 		return doRetrieveResponseBodyForURL(url);
 	}
 
-	private String doRetrieveResponseBodyForURL(String url) throws IOException {
+	private String doRetrieveResponseBodyForURL(String url)
+			throws IOException, InterruptedException {
 		Request request = new Request.Builder().url(url)
 				.addHeader("Content-type", "application/xml").build();
-		Response response = httpClient.newCall(request).execute();
-		return response.body().string();
+		return httpExecutor.executeForString(request);
 	}
 
 	private List<Project> mapProjectsAsXmlToProjectsList(
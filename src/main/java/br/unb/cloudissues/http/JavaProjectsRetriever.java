@@ -14,9 +14,6 @@ import br.unb.cloudissues.model.Project;
 import br.unb.cloudissues.model.SonarProjectComponent;
 import br.unb.cloudissues.util.Utils;
 import okhttp3.HttpUrl;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
 
 public class JavaProjectsRetriever {
 
@@ -25,38 +22,25 @@ public class JavaProjectsRetriever {
 	// SonarCloud is not returning any value after the 10_000th
 	private static final Integer MAX_RESULTS_THAT_SONAR_RETURN = 10_000;
 
-	private static final int DEFAULT_TIME_TO_WAIT_IN_MILISECONDS_BETWEEN_REQUESTS = 6500;
-	private static final int DEFAULT_MAX_REQUESTS_TO_WAIT = 10;
-
 	private static final String PROJECTS_SEARCH_URL = "/components/search_projects";
 
-	private static int count = 1;
-
 	private final boolean isSonarCloud;
 
 	private final String baseUrl;
 
-	private final int timeToWaitInMiliSecondsBetweenRequests;
-	private final int maxRequestsToWait;
-
-	private final OkHttpClient httpClient = new OkHttpClient();
+	private final HttpExecutor httpExecutor;
 
 	private JavaProjectsRetriever(Builder builder) {
 		baseUrl = builder.baseUrl;
 		isSonarCloud = Optional.ofNullable(builder.isSonarCloud).orElse(true);
-		timeToWaitInMiliSecondsBetweenRequests = Optional
-				.ofNullable(builder.timeToWaitInMiliSecondsBetweenRequests)
-				.orElse(DEFAULT_TIME_TO_WAIT_IN_MILISECONDS_BETWEEN_REQUESTS);
-		maxRequestsToWait = Optional.ofNullable(builder.maxRequestsToWait)
-				.orElse(DEFAULT_MAX_REQUESTS_TO_WAIT);
+		httpExecutor = Optional.ofNullable(builder.httpExecutor).orElse(HttpExecutor.shared());
 	}
 
 	public static class Builder {
 
 		private final String baseUrl;
 		private Boolean isSonarCloud;
-		private Integer timeToWaitInMiliSecondsBetweenRequests;
-		private Integer maxRequestsToWait;
+		private HttpExecutor httpExecutor;
 
 		/**
 		 * @param baseUrl Sonar Web API Base URL until /api
@@ -70,13 +54,8 @@ public class JavaProjectsRetriever {
 			return this;
 		}
 
-		public Builder withTimeToWaitInMiliSecondsBetweenRequests(int time) {
-			timeToWaitInMiliSecondsBetweenRequests = time;
-			return this;
-		}
-
-		public Builder withMaxRequestsToWait(int maxRequestsToWait) {
-			this.maxRequestsToWait = maxRequestsToWait;
+		public Builder withHttpExecutor(HttpExecutor httpExecutor) {
+			this.httpExecutor = httpExecutor;
 			return this;
 		}
 
@@ -88,8 +67,6 @@ public class JavaProjectsRetriever {
 	public List<Project> retrieve() throws IOException, InterruptedException {
 		Objects.requireNonNull(this.baseUrl);
 
-		count = 1;
-
 		System.out.println("\nretrieving Java projects in " + baseUrl + PROJECTS_SEARCH_URL);
 		return httpRequestJavaProjects();
 
@@ -130,24 +107,7 @@ public class JavaProjectsRetriever {
 	}
 
 	private String retrieveResponseBodyForURL(String url) throws IOException, InterruptedException {
-		tryNotToFloodSonarWithLotsOfRequests();
-		return doRetrieveResponseBodyForURL(url);
-	}
-
-	private void tryNotToFloodSonarWithLotsOfRequests() throws InterruptedException {
-		if (count % maxRequestsToWait == 0) {
-			System.out.println("\nWaiting for "
-					+ (timeToWaitInMiliSecondsBetweenRequests / 1000.0 + " seconds..."));
-			System.out.println(count + " requests so far.");
-			Thread.sleep(timeToWaitInMiliSecondsBetweenRequests);
-		}
-		count++;
-	}
-
-	private String doRetrieveResponseBodyForURL(String url) throws IOException {
-		Request request = new Request.Builder().url(url).build();
-		Response response = httpClient.newCall(request).execute();
-		return response.body().string();
+		return httpExecutor.executeForString(url);
 	}
 
 	@SuppressWarnings("unchecked")
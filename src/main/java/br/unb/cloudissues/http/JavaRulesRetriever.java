@@ -9,31 +9,29 @@ import java.util.Objects;
 import br.unb.cloudissues.model.Rule;
 import br.unb.cloudissues.util.Utils;
 import okhttp3.HttpUrl;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
 
 public class JavaRulesRetriever {
 
 	private static final Integer DEFAULT_PAGE_SIZE = 500;
-	private static final int TIME_TO_WAIT_IN_MILISECONDS_BETWEEN_REQUESTS = 6500;
-	private static final int MAX_REQUESTS_TO_WAIT = 10;
 
 	private static final String RULES_SEARCH_URL = "/rules/search";
 
-	private static int count = 1;
-
-	private final OkHttpClient httpClient = new OkHttpClient();
-
 	private final String baseUrl;
 
+	private final HttpExecutor httpExecutor;
+
 	public JavaRulesRetriever(String baseUrl) {
+		this(baseUrl, HttpExecutor.shared());
+	}
+
+	public JavaRulesRetriever(String baseUrl, HttpExecutor httpExecutor) {
 		Objects.requireNonNull(baseUrl);
+		Objects.requireNonNull(httpExecutor);
 		this.baseUrl = baseUrl;
+		this.httpExecutor = httpExecutor;
 	}
 
 	public List<Rule> retrieve() throws IOException, InterruptedException {
-		count = 1;
 		System.out.println("\nRetrieving Java rules in " + baseUrl + RULES_SEARCH_URL);
 		return httpRequestJavaRules();
 	}
@@ -60,24 +58,7 @@ public class JavaRulesRetriever {
 
 	private String requestRulesResponseAsString(String url)
 			throws IOException, InterruptedException {
-		tryNotToFloodSonarWithLotsOfRequests();
-		return doRequestRulesResponseAsString(url);
-	}
-
-	private void tryNotToFloodSonarWithLotsOfRequests() throws InterruptedException {
-		if (count % MAX_REQUESTS_TO_WAIT == 0) {
-			System.out.println("\nWaiting for "
-					+ (TIME_TO_WAIT_IN_MILISECONDS_BETWEEN_REQUESTS / 1000.0 + " seconds..."));
-			System.out.println(count + " requests so far.");
-			Thread.sleep(TIME_TO_WAIT_IN_MILISECONDS_BETWEEN_REQUESTS);
-		}
-		count++;
-	}
-
-	private String doRequestRulesResponseAsString(String url) throws IOException {
-		Request request = new Request.Builder().url(url).build();
-		Response response = httpClient.newCall(request).execute();
-		return response.body().string();
+		return httpExecutor.executeForString(url);
 	}
 
 	private String buildURLForJavaRules() {
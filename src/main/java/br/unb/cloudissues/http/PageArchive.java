@@ -0,0 +1,122 @@
+package br.unb.cloudissues.http;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import br.unb.cloudissues.util.Utils;
+
+/**
+ * Raw response bodies of the retrievers, stored as received, so mining only
+ * costs I/O and the bodies can be parsed again later without contacting the
+ * server (see {@link ViolationsRetriever#ingest(PageArchiveManifest, PageArchive)}
+ * and {@link ProjectFilesRetriever#ingest(PageArchiveManifest, PageArchive)}).
+ * Layout: {@code <directory>/<stage>/<project>/<page>.json}, plus a
+ * {@code manifest.json} per project written once all of its pages are.
+ */
+public class PageArchive {
+
+	private static final String MANIFEST_FILE = "manifest.json";
+
+	private static final String PAGE_SUFFIX = ".json";
+
+	private final Path directory;
+
+	public PageArchive(Path directory) {
+		Objects.requireNonNull(directory);
+		this.directory = directory;
+	}
+
+	/**
+	 * Downloads {@code url} as the page {@code pageName} of the project.
+	 */
+	public PageArchiveManifest.Page store(String stage, String projectKey, String pageName,
+			String url, HttpExecutor httpExecutor) throws IOException, InterruptedException {
+		String file = pageName + PAGE_SUFFIX;
+		long bytes = httpExecutor.download(url, projectDirectory(stage, projectKey).resolve(file));
+		return new PageArchiveManifest.Page(pageName, file, url, bytes);
+	}
+
+	/**
+	 * Marks the project as archived in the manifest's stage.
+	 */
+	public void writeManifest(PageArchiveManifest manifest) throws IOException {
+		Utils.writeObjToFileAsJSON(manifest, manifestPath(manifest.getStage(),
+				manifest.getProject().getProjectKey()).toString());
+	}
+
+	public boolean isArchived(String stage, String projectKey) {
+		return Files.isRegularFile(manifestPath(stage, projectKey));
+	}
+
+	/**
+	 * @return the manifests of every project fully archived in {@code stage}.
+	 */
+	public List<PageArchiveManifest> manifests(String stage) throws IOException {
+		Path stageDirectory = directory.resolve(stage);
+		if (!Files.isDirectory(stageDirectory)) {
+			throw new IOException("Nothing archived for stage " + stage + " in " + directory);
+		}
+		try (Stream<Path> projectDirectories = Files.list(stageDirectory)) {
+			return projectDirectories
+					.map(projectDirectory -> projectDirectory.resolve(MANIFEST_FILE))
+					.filter(Files::isRegularFile).sorted().map(PageArchive::readManifest)
+					.collect(Collectors.toList());
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	private static PageArchiveManifest readManifest(Path path) {
+		try {
+			return Utils.readJsonFileAndRetrieveClass(path.toString(), PageArchiveManifest.class);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @return the body of {@code page}, as UTF-8.
+	 */
+	public Reader open(PageArchiveManifest manifest, PageArchiveManifest.Page page)
+			throws IOException {
+		return open(manifest.getStage(), manifest.getProject().getProjectKey(), page);
+	}
+
+	/**
+	 * Same as {@link #open(PageArchiveManifest, PageArchiveManifest.Page)}, for a
+	 * project whose manifest is not written yet.
+	 */
+	public Reader open(String stage, String projectKey, PageArchiveManifest.Page page)
+			throws IOException {
+		return Files.newBufferedReader(projectDirectory(stage, projectKey).resolve(page.getFile()),
+				StandardCharsets.UTF_8);
+	}
+
+	public String read(PageArchiveManifest manifest, PageArchiveManifest.Page page)
+			throws IOException {
+		Path path = projectDirectory(manifest.getStage(), manifest.getProject().getProjectKey())
+				.resolve(page.getFile());
+		return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+	}
+
+	private Path manifestPath(String stage, String projectKey) {
+		return projectDirectory(stage, projectKey).resolve(MANIFEST_FILE);
+	}
+
+	private Path projectDirectory(String stage, String projectKey) {
+		return directory.resolve(stage).resolve(Utils.sanitizeProjectName(projectKey));
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+}
@@ -0,0 +1,106 @@
+package br.unb.cloudissues.http;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import br.unb.cloudissues.model.Project;
+
+/**
+ * What {@link PageArchive} holds for a project in a stage: its pages, in the
+ * order they must be read, and the total the server reported. Written last, so
+ * a project only counts as archived once all its pages are on disk.
+ */
+public class PageArchiveManifest {
+
+	private final String stage;
+
+	private final Project project;
+
+	private final long total;
+
+	// pages of creation date shards, which may repeat issues
+	private final boolean sharded;
+
+	private final List<Page> pages;
+
+	public PageArchiveManifest(String stage, Project project, long total, boolean sharded,
+			List<Page> pages) {
+		this.stage = stage;
+		this.project = project;
+		this.total = total;
+		this.sharded = sharded;
+		this.pages = new ArrayList<>(pages);
+	}
+
+	public String getStage() {
+		return stage;
+	}
+
+	public Project getProject() {
+		return project;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public boolean isSharded() {
+		return sharded;
+	}
+
+	public List<Page> getPages() {
+		return Collections.unmodifiableList(pages);
+	}
+
+	@Override
+	public String toString() {
+		return "PageArchiveManifest [stage=" + stage + ", project=" + project + ", total=" + total
+				+ ", sharded=" + sharded + ", pages=" + pages.size() + "]";
+	}
+
+	/**
+	 * One response body, stored as is in {@code file} (relative to the project's
+	 * directory in the archive).
+	 */
+	public static class Page {
+
+		private final String name;
+
+		private final String file;
+
+		private final String url;
+
+		private final long bytes;
+
+		public Page(String name, String file, String url, long bytes) {
+			this.name = name;
+			this.file = file;
+			this.url = url;
+			this.bytes = bytes;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getFile() {
+			return file;
+		}
+
+		public String getUrl() {
+			return url;
+		}
+
+		public long getBytes() {
+			return bytes;
+		}
+
+		@Override
+		public String toString() {
+			return "Page [name=" + name + ", file=" + file + ", url=" + url + ", bytes=" + bytes
+					+ "]";
+		}
+	}
+
+}
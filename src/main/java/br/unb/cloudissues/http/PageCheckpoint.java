@@ -0,0 +1,36 @@
+package br.unb.cloudissues.http;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import br.unb.cloudissues.model.IssuesPage;
+
+/**
+ * Lets {@link ViolationsRetriever} skip pages fetched by an earlier, interrupted
+ * run. Pages are identified by their URL.
+ */
+public interface PageCheckpoint {
+
+	PageCheckpoint NONE = new PageCheckpoint() {
+
+		@Override
+		public Optional<IssuesPage> restore(String projectKey, String pageUrl) {
+			return Optional.empty();
+		}
+
+		@Override
+		public void save(String projectKey, String pageUrl) {
+		}
+	};
+
+	/**
+	 * @return the page as saved by a previous run, if any.
+	 */
+	Optional<IssuesPage> restore(String projectKey, String pageUrl) throws IOException;
+
+	/**
+	 * Called once a page has been fetched from the server.
+	 */
+	void save(String projectKey, String pageUrl) throws IOException;
+
+}
@@ -1,6 +1,7 @@
 package br.unb.cloudissues.http;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -10,18 +11,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import br.unb.cloudissues.model.Project;
 import br.unb.cloudissues.model.ProjectFile;
 import br.unb.cloudissues.model.ProjectFiles;
-import br.unb.cloudissues.util.UnsafeOkHttpClient;
+import br.unb.cloudissues.util.HttpClients;
 import br.unb.cloudissues.util.Utils;
 import okhttp3.HttpUrl;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
 
 public class ProjectFilesRetriever {
 
@@ -29,53 +26,44 @@ public class ProjectFilesRetriever {
 
 	private static final String ECLIPSE_URL_SUFFIX = "/resources";
 
-	private static int count = 1;
-
 	private static final Integer DEFAULT_PAGE_SIZE = 500;
 
 	private static final Integer MAX_RESULTS_THAT_SONAR_RETURN = 10_000;
 
-	private static final int DEFAULT_TIME_TO_WAIT_IN_MILISECONDS_BETWEEN_REQUESTS = 6500;
-	private static final int DEFAULT_MAX_REQUESTS_TO_WAIT = 10;
+	// names of the archived pages, see archive(Project, PageArchive, String)
+	private static final String MEASURES_PAGE = "measures";
+	private static final String ECLIPSE_FILES_PAGE = "resources";
 
 	private final String baseUrl;
 	private final boolean hasMaxResultsLimit;
-	private final int timeToWaitInMiliSecondsBetweenRequests;
-	private final int maxRequestsToWait;
 	private final boolean ignoreSSL;
 	private final boolean isApache;
 	private final boolean isEclipse;
 
-	private final OkHttpClient httpClient;
+	private final HttpExecutor httpExecutor;
 
 	private ProjectFilesRetriever(Builder builder) {
 		baseUrl = builder.baseUrl;
 		hasMaxResultsLimit = Optional.ofNullable(builder.hasMaxResultsLimit).orElse(false);
-		timeToWaitInMiliSecondsBetweenRequests = Optional
-				.ofNullable(builder.timeToWaitInMiliSecondsBetweenRequests)
-				.orElse(DEFAULT_TIME_TO_WAIT_IN_MILISECONDS_BETWEEN_REQUESTS);
-		maxRequestsToWait = Optional.ofNullable(builder.maxRequestsToWait)
-				.orElse(DEFAULT_MAX_REQUESTS_TO_WAIT);
 		ignoreSSL = Optional.ofNullable(builder.ignoreSSL).orElse(false);
 		isApache = Optional.ofNullable(builder.isApache).orElse(false);
 		isEclipse = Optional.ofNullable(builder.isEclipse).orElse(false);
-		httpClient = createHttpClient();
+		httpExecutor = createHttpExecutor(
+				Optional.ofNullable(builder.httpExecutor).orElse(HttpExecutor.shared()));
 	}
 
-	private OkHttpClient createHttpClient() {
+	private HttpExecutor createHttpExecutor(HttpExecutor httpExecutor) {
 		if (ignoreSSL) {
-			return UnsafeOkHttpClient.getUnsafeOkHttpClient();
+			return httpExecutor.withHttpClient(HttpClients.unsafe());
 		}
-		return new OkHttpClient().newBuilder().connectTimeout(60, TimeUnit.SECONDS)
-				.writeTimeout(60, TimeUnit.SECONDS).readTimeout(60, TimeUnit.SECONDS).build();
+		return httpExecutor;
 	}
 
 	public static class Builder {
 
 		private final String baseUrl;
 		private Boolean hasMaxResultsLimit;
-		private Integer timeToWaitInMiliSecondsBetweenRequests;
-		private Integer maxRequestsToWait;
+		private HttpExecutor httpExecutor;
 		private Boolean ignoreSSL;
 		private Boolean isApache;
 		private Boolean isEclipse;
@@ -89,14 +77,8 @@ public class ProjectFilesRetriever {
 			return this;
 		}
 
-		public Builder timeToWaitInMiliSecondsBetWeenRequests(
-				int timeToWaitInMiliSecondsBetweenRequests) {
-			this.timeToWaitInMiliSecondsBetweenRequests = timeToWaitInMiliSecondsBetweenRequests;
-			return this;
-		}
-
-		public Builder maxRequestsToWait(int maxRequestsToWait) {
-			this.maxRequestsToWait = maxRequestsToWait;
+		public Builder httpExecutor(HttpExecutor httpExecutor) {
+			this.httpExecutor = httpExecutor;
 			return this;
 		}
 
@@ -124,8 +106,6 @@ public class ProjectFilesRetriever {
 	public List<ProjectFiles> retrieve(List<Project> projects) {
 		List<ProjectFiles> projectsFiles = new ArrayList<>(projects.size());
 
-		count = 1;
-
 		projects.stream().forEach(project -> {
 			try {
 				System.out.println(
@@ -139,6 +119,85 @@ public class ProjectFilesRetriever {
 		return projectsFiles;
 	}
 
+	/**
+	 * Same as {@link #retrieve(List)} for a single project, but failures are
+	 * thrown instead of printed.
+	 */
+	public ProjectFiles retrieve(Project project) throws IOException, InterruptedException {
+		System.out.println("\nretrieving files and metrics for " + project.getProjectKey() + "...");
+		return httpRequestForFilesAndMetricsForProject(project);
+	}
+
+	/**
+	 * Stores the raw bodies of the responses {@link #retrieve(Project)} would
+	 * parse in {@code archive}: the project's measures, then every page of its
+	 * files. Only the total of the first page of files is read.
+	 * 
+	 * @return the manifest, written once every page is archived.
+	 */
+	public PageArchiveManifest archive(Project project, PageArchive archive, String stage)
+			throws IOException, InterruptedException {
+		String projectKey = project.getProjectKey();
+		System.out.println("\narchiving files and metrics for " + projectKey + "...");
+		List<PageArchiveManifest.Page> pages = new ArrayList<>();
+		long total = 0;
+		if (isEclipse) {
+			pages.add(archive.store(stage, projectKey, ECLIPSE_FILES_PAGE,
+					doBuildURLForFilesEclipse(projectKey), httpExecutor));
+		} else {
+			pages.add(archive.store(stage, projectKey, MEASURES_PAGE,
+					buildURLForProject(projectKey), httpExecutor));
+			PageArchiveManifest.Page firstPage = archive.store(stage, projectKey,
+					filesPageName(1), buildUrlForFiles(projectKey), httpExecutor);
+			pages.add(firstPage);
+			try (Reader body = archive.open(stage, projectKey, firstPage)) {
+				total = new IssuesSearchResponseParser().parseTotal(body);
+			}
+
+			int retrievedSoFar = DEFAULT_PAGE_SIZE;
+			for (int page = 2; shouldRequestIssuesForMorePages(retrievedSoFar, total); page++) {
+				pages.add(archive.store(stage, projectKey, filesPageName(page),
+						buildUrlForPage(projectKey, page), httpExecutor));
+				retrievedSoFar += DEFAULT_PAGE_SIZE;
+			}
+		}
+
+		PageArchiveManifest manifest = new PageArchiveManifest(stage, project, total, false,
+				pages);
+		archive.writeManifest(manifest);
+		return manifest;
+	}
+
+	private static String filesPageName(int page) {
+		return String.format("files-%05d", page);
+	}
+
+	/**
+	 * Parses the pages stored by {@link #archive(Project, PageArchive, String)},
+	 * without any request.
+	 */
+	public ProjectFiles ingest(PageArchiveManifest manifest, PageArchive archive)
+			throws IOException {
+		Map<String, String> metrics = Collections.emptyMap();
+		Set<ProjectFile> files = new HashSet<>();
+		for (PageArchiveManifest.Page page : manifest.getPages()) {
+			String responseBody = archive.read(manifest, page);
+			switch (page.getName()) {
+			case MEASURES_PAGE:
+				metrics = parseProjectMetrics(responseBody);
+				break;
+			case ECLIPSE_FILES_PAGE:
+				files.addAll(parseEclipseFiles(responseBody));
+				break;
+			default:
+				files.addAll(parseProjectFilesPage(responseBody));
+			}
+		}
+		ProjectFiles projectFiles = new ProjectFiles(manifest.getProject(), metrics);
+		projectFiles.setFiles(files);
+		return projectFiles;
+	}
+
 	private ProjectFiles httpRequestForFilesAndMetricsForProject(Project project)
 			throws IOException, InterruptedException {
 		String projectKey = project.getProjectKey();
@@ -155,11 +214,14 @@ public class ProjectFilesRetriever {
 		return Collections.emptyMap();
 	}
 
-	@SuppressWarnings({ "unchecked", "rawtypes" })
 	private Map<String, String> getMetricsForProjectsNonEclipse(String projectKey)
 			throws IOException, InterruptedException {
 		String url = buildURLForProject(projectKey);
-		String responseBody = retrieveResponseBodyForUrl(url);
+		return parseProjectMetrics(retrieveResponseBodyForUrl(url));
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Map<String, String> parseProjectMetrics(String responseBody) {
 		Map<String, Object> responseMap = Utils.responseToMap(responseBody);
 
 		ArrayList<LinkedHashMap<String, Object>> measures = (ArrayList<LinkedHashMap<String, Object>>) ((Map) responseMap
@@ -189,24 +251,7 @@ public class ProjectFilesRetriever {
 	}
 
 	private String retrieveResponseBodyForUrl(String url) throws IOException, InterruptedException {
-		tryNotToFloodSonarWithLotsOfRequests();
-		return doRetrieveResponseBodyForUrl(url);
-	}
-
-	private String doRetrieveResponseBodyForUrl(String url) throws IOException {
-		Request request = new Request.Builder().url(url).build();
-		Response response = httpClient.newCall(request).execute();
-		return response.body().string();
-	}
-
-	private void tryNotToFloodSonarWithLotsOfRequests() throws InterruptedException {
-		if (count % maxRequestsToWait == 0) {
-			System.out.println("\nWaiting for "
-					+ (timeToWaitInMiliSecondsBetweenRequests / 1000.0 + " seconds..."));
-			System.out.println(count + " requests so far.");
-			Thread.sleep(timeToWaitInMiliSecondsBetweenRequests);
-		}
-		count++;
+		return httpExecutor.executeForString(url);
 	}
 
 	private Set<ProjectFile> httpRequestForFilesInProject(String projectKey)
@@ -319,7 +364,10 @@ public class ProjectFilesRetriever {
 
 	private Set<ProjectFile> requestProjectFiles(String url)
 			throws IOException, InterruptedException {
-		String responseBody = retrieveResponseBodyForUrl(url);
+		return parseProjectFilesPage(retrieveResponseBodyForUrl(url));
+	}
+
+	private Set<ProjectFile> parseProjectFilesPage(String responseBody) {
 		Map<String, Object> responseMap = Utils.responseToMap(responseBody);
 		ArrayList<Map<String, Object>> components = retrieveComponentsListFromResponseMap(
 				responseMap);
@@ -352,8 +400,10 @@ public class ProjectFilesRetriever {
 	private Set<ProjectFile> httpRequestForFilesEclipse(String projectKey)
 			throws IOException, InterruptedException {
 		String url = doBuildURLForFilesEclipse(projectKey);
-		String responseBody = retrieveResponseBodyForUrl(url);
+		return parseEclipseFiles(retrieveResponseBodyForUrl(url));
+	}
 
+	private Set<ProjectFile> parseEclipseFiles(String responseBody) {
 		List<Map<String, Object>> responseMaps = Utils.responseToListOfMap(responseBody);
 
 		return responseMaps.stream()
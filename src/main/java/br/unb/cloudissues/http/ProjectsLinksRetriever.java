@@ -14,43 +14,27 @@ import br.unb.cloudissues.model.Project;
 import br.unb.cloudissues.model.ProjectLink;
 import br.unb.cloudissues.util.Utils;
 import okhttp3.HttpUrl;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
 
 public class ProjectsLinksRetriever {
 
 	private static final String PROJECT_LINKS_SEARCH_URL = "/api/project_links/search";
 
-	private static final int DEFAULT_TIME_TO_WAIT_IN_MILISECONDS_BETWEEN_REQUESTS = 5000;
-	private static final int DEFAULT_MAX_REQUESTS_TO_WAIT = 20;
-
-	private static int count = 1;
-
 	private final List<Project> projects;
 
 	private final String baseUrl;
 
-	private final int timeToWaitInMiliSecondsBetweenRequests;
-	private final int maxRequestsToWait;
-
-	private final OkHttpClient httpClient = new OkHttpClient();
+	private final HttpExecutor httpExecutor;
 
 	private ProjectsLinksRetriever(Builder builder) {
 		projects = builder.projects;
 		baseUrl = builder.baseUrl;
-		timeToWaitInMiliSecondsBetweenRequests = Optional
-				.ofNullable(builder.timeToWaitInMiliSecondsBetweenRequests)
-				.orElse(DEFAULT_TIME_TO_WAIT_IN_MILISECONDS_BETWEEN_REQUESTS);
-		maxRequestsToWait = Optional.ofNullable(builder.maxRequestsToWait)
-				.orElse(DEFAULT_MAX_REQUESTS_TO_WAIT);
+		httpExecutor = Optional.ofNullable(builder.httpExecutor).orElse(HttpExecutor.shared());
 	}
 
 	public static class Builder {
 		private final List<Project> projects;
 		private final String baseUrl;
-		private Integer timeToWaitInMiliSecondsBetweenRequests;
-		private Integer maxRequestsToWait;
+		private HttpExecutor httpExecutor;
 
 		/**
 		 * @param baseUrl Sonar Web API Base URL until /api
@@ -60,13 +44,8 @@ public class ProjectsLinksRetriever {
 			this.baseUrl = baseUrl;
 		}
 
-		public Builder timeToWaitInMiliSecondsBetweenRequests(int time) {
-			timeToWaitInMiliSecondsBetweenRequests = time;
-			return this;
-		}
-
-		public Builder maxRequestsToWait(int maxRequestsToWait) {
-			this.maxRequestsToWait = maxRequestsToWait;
+		public Builder httpExecutor(HttpExecutor httpExecutor) {
+			this.httpExecutor = httpExecutor;
 			return this;
 		}
 
@@ -84,8 +63,6 @@ public class ProjectsLinksRetriever {
 	public List<Project> retrieve() throws IOException, InterruptedException {
 		validateNeededParameters();
 
-		count = 1;
-
 		System.out.println("\nretrieving links for projects in " + baseUrl);
 		return httpRequestLinksAndAddToProjects();
 	}
@@ -123,24 +100,7 @@ public class ProjectsLinksRetriever {
 	}
 
 	private String retrieveResponseBodyForURL(String url) throws InterruptedException, IOException {
-		tryNotToFloodSonarWithLotsOfRequests();
-		return doRetrieveResponseBodyForURL(url);
-	}
-
-	private void tryNotToFloodSonarWithLotsOfRequests() throws InterruptedException {
-		if (count % maxRequestsToWait == 0) {
-			System.out.println("\nWaiting for "
-					+ (timeToWaitInMiliSecondsBetweenRequests / 1000.0 + " seconds..."));
-			System.out.println(count + " requests so far.");
-			Thread.sleep(timeToWaitInMiliSecondsBetweenRequests);
-		}
-		count++;
-	}
-
-	private String doRetrieveResponseBodyForURL(String url) throws IOException {
-		Request request = new Request.Builder().url(url).build();
-		Response response = httpClient.newCall(request).execute();
-		return response.body().string();
+		return httpExecutor.executeForString(url);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -0,0 +1,130 @@
+package br.unb.cloudissues.http;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.HttpUrl;
+
+/**
+ * Per-host token bucket shared by all retrievers. Every request to a host takes
+ * one token; tokens are refilled at {@code requestsPerSecond} up to
+ * {@code burstSize}. Thread-safe, so retrievers running in parallel in the same
+ * JVM respect a single budget.
+ */
+public class RateLimiter {
+
+	private static final double DEFAULT_REQUESTS_PER_SECOND = 1.5;
+	private static final int DEFAULT_BURST_SIZE = 10;
+
+	private static final RateLimiter SHARED = new RateLimiter(DEFAULT_REQUESTS_PER_SECOND,
+			DEFAULT_BURST_SIZE);
+
+	private final double requestsPerSecond;
+
+	private final int burstSize;
+
+	private final ConcurrentMap<String, TokenBucket> bucketsByHost = new ConcurrentHashMap<>();
+
+	public RateLimiter(double requestsPerSecond, int burstSize) {
+		if (requestsPerSecond <= 0) {
+			throw new IllegalArgumentException("requestsPerSecond must be positive");
+		}
+		if (burstSize < 1) {
+			throw new IllegalArgumentException("burstSize must be at least 1");
+		}
+		this.requestsPerSecond = requestsPerSecond;
+		this.burstSize = burstSize;
+	}
+
+	/**
+	 * @return the limiter used by retrievers that were not given one explicitly.
+	 */
+	public static RateLimiter shared() {
+		return SHARED;
+	}
+
+	/**
+	 * Blocks until a request to the host of {@code url} is allowed.
+	 */
+	public void acquire(String url) throws InterruptedException {
+		long waitInNanos = bucketFor(url).reserve();
+		if (waitInNanos > 0) {
+			TimeUnit.NANOSECONDS.sleep(waitInNanos);
+		}
+	}
+
+	/**
+	 * Makes every caller for the host of {@code url} wait at least
+	 * {@code nanos} before its next request, e.g. when the server answered 429.
+	 */
+	public void pause(String url, long nanos) {
+		bucketFor(url).pause(nanos);
+	}
+
+	private TokenBucket bucketFor(String url) {
+		return bucketsByHost.computeIfAbsent(hostOf(url),
+				host -> new TokenBucket(requestsPerSecond, burstSize));
+	}
+
+	private static String hostOf(String url) {
+		HttpUrl httpUrl = HttpUrl.parse(url);
+		if (httpUrl == null) {
+			return url;
+		}
+		return httpUrl.host() + ":" + httpUrl.port();
+	}
+
+	public double getRequestsPerSecond() {
+		return requestsPerSecond;
+	}
+
+	public int getBurstSize() {
+		return burstSize;
+	}
+
+	private static class TokenBucket {
+
+		private final double nanosPerToken;
+
+		private final double maxTokens;
+
+		private double availableTokens;
+
+		private long lastRefillNanos;
+
+		TokenBucket(double requestsPerSecond, int burstSize) {
+			nanosPerToken = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+			maxTokens = burstSize;
+			availableTokens = burstSize;
+			lastRefillNanos = System.nanoTime();
+		}
+
+		/**
+		 * Takes a token, possibly going into debt, and returns how long the caller
+		 * must wait before using it. Debt makes concurrent callers queue up instead
+		 * of all waking at the same instant.
+		 */
+		synchronized long reserve() {
+			refill();
+			availableTokens -= 1;
+			if (availableTokens >= 0) {
+				return 0;
+			}
+			return (long) (-availableTokens * nanosPerToken);
+		}
+
+		synchronized void pause(long nanos) {
+			refill();
+			availableTokens = Math.min(availableTokens, 0) - nanos / nanosPerToken;
+		}
+
+		private void refill() {
+			long now = System.nanoTime();
+			double refilled = (now - lastRefillNanos) / nanosPerToken;
+			availableTokens = Math.min(maxTokens, availableTokens + refilled);
+			lastRefillNanos = now;
+		}
+	}
+
+}
@@ -0,0 +1,150 @@
+package br.unb.cloudissues.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import br.unb.cloudissues.util.Utils;
+import okhttp3.HttpUrl;
+
+/**
+ * On-disk cache of response bodies, one file per request. Files are keyed by
+ * the normalized request URL, so the same query is a hit regardless of the
+ * order its parameters were added in.
+ */
+public class ResponseCache {
+
+	public enum Mode {
+		/** Serves fresh entries from disk and stores every network response. */
+		READ_WRITE,
+		/**
+		 * Serves every entry from disk, whatever its age, and never touches the
+		 * network. A miss is an error.
+		 */
+		REPLAY
+	}
+
+	private static final String FILE_SUFFIX = ".cache";
+
+	private final Path directory;
+
+	private final Duration timeToLive;
+
+	private final Mode mode;
+
+	public ResponseCache(Path directory, Duration timeToLive, Mode mode) {
+		Objects.requireNonNull(directory);
+		Objects.requireNonNull(timeToLive);
+		Objects.requireNonNull(mode);
+		this.directory = directory;
+		this.timeToLive = timeToLive;
+		this.mode = mode;
+	}
+
+	public boolean isReplay() {
+		return mode == Mode.REPLAY;
+	}
+
+	/**
+	 * @return the cached body for {@code url}, if present and still fresh (any age
+	 *         in replay mode).
+	 */
+	public Optional<Path> lookup(String url) throws IOException {
+		Path path = pathFor(url);
+		if (!Files.isRegularFile(path)) {
+			return Optional.empty();
+		}
+		if (isReplay() || isFresh(path)) {
+			return Optional.of(path);
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * @return the cached body for {@code url} whatever its age, e.g. for a page a
+	 *         resumed run already fetched.
+	 */
+	public Optional<Path> lookupAnyAge(String url) {
+		Path path = pathFor(url);
+		return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+	}
+
+	private boolean isFresh(Path path) throws IOException {
+		Instant storedAt = Files.getLastModifiedTime(path).toInstant();
+		return storedAt.plus(timeToLive).isAfter(Instant.now());
+	}
+
+	/**
+	 * Copies {@code body} to the cache. The entry only becomes visible once fully
+	 * written.
+	 * 
+	 * @return the path of the cached body.
+	 */
+	public Path store(String url, InputStream body) throws IOException {
+		Path path = pathFor(url);
+		Files.createDirectories(path.getParent());
+		Path tempPath = Utils.createTempFileNextTo(path);
+		try {
+			Files.copy(body, tempPath, StandardCopyOption.REPLACE_EXISTING);
+			Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tempPath);
+		}
+		return path;
+	}
+
+	private Path pathFor(String url) {
+		String hash = sha256(normalize(url));
+		return directory.resolve(hash.substring(0, 2)).resolve(hash + FILE_SUFFIX);
+	}
+
+	/**
+	 * Lower cases scheme and host and sorts the query parameters by name and then
+	 * value.
+	 */
+	static String normalize(String url) {
+		HttpUrl httpUrl = HttpUrl.parse(url);
+		if (httpUrl == null) {
+			return url;
+		}
+		List<String[]> params = new ArrayList<>(httpUrl.querySize());
+		for (int i = 0; i < httpUrl.querySize(); i++) {
+			String value = Optional.ofNullable(httpUrl.queryParameterValue(i)).orElse("");
+			params.add(new String[] { httpUrl.queryParameterName(i), value });
+		}
+		params.sort(Comparator.<String[], String>comparing(param -> param[0])
+				.thenComparing(param -> param[1]));
+
+		HttpUrl.Builder normalized = httpUrl.newBuilder().query(null).fragment(null);
+		params.forEach(param -> normalized.addQueryParameter(param[0], param[1]));
+		return normalized.build().toString();
+	}
+
+	private static String sha256(String value) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256")
+					.digest(value.getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+package br.unb.cloudissues.http;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * How {@link HttpExecutor} retries throttled (429), unavailable (5xx) and
+ * failed requests: exponential backoff with full jitter, at most
+ * {@code maxAttempts} per request, and a retry budget shared by every request
+ * so a server in trouble does not get a retry storm.
+ */
+public class RetryPolicy {
+
+	private static final int DEFAULT_MAX_ATTEMPTS = 6;
+	private static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofSeconds(1);
+	private static final Duration DEFAULT_MAX_BACKOFF = Duration.ofMinutes(2);
+	private static final double DEFAULT_RETRY_BUDGET_RATIO = 0.2;
+	private static final int DEFAULT_MIN_RETRY_BUDGET = 20;
+
+	private final int maxAttempts;
+
+	private final Duration initialBackoff;
+
+	private final Duration maxBackoff;
+
+	private final double retryBudgetRatio;
+
+	private final int minRetryBudget;
+
+	private final AtomicLong requests = new AtomicLong();
+
+	private final AtomicLong retries = new AtomicLong();
+
+	/**
+	 * @param retryBudgetRatio retries allowed per request sent, e.g. 0.2 allows
+	 *                         one retry for every five requests.
+	 * @param minRetryBudget   retries always allowed, whatever the ratio.
+	 */
+	public RetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff,
+			double retryBudgetRatio, int minRetryBudget) {
+		if (maxAttempts < 1) {
+			throw new IllegalArgumentException("maxAttempts must be at least 1");
+		}
+		this.maxAttempts = maxAttempts;
+		this.initialBackoff = initialBackoff;
+		this.maxBackoff = maxBackoff;
+		this.retryBudgetRatio = retryBudgetRatio;
+		this.minRetryBudget = minRetryBudget;
+	}
+
+	public static RetryPolicy defaultPolicy() {
+		return new RetryPolicy(DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF,
+				DEFAULT_RETRY_BUDGET_RATIO, DEFAULT_MIN_RETRY_BUDGET);
+	}
+
+	/**
+	 * Requests are never retried.
+	 */
+	public static RetryPolicy noRetries() {
+		return new RetryPolicy(1, Duration.ZERO, Duration.ZERO, 0, 0);
+	}
+
+	public static boolean isRetryableStatus(int code) {
+		return code == 408 || code == 429 || code == 500 || code == 502 || code == 503
+				|| code == 504;
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	void recordRequest() {
+		requests.incrementAndGet();
+	}
+
+	/**
+	 * @return whether the request that just made its {@code attempt}th attempt
+	 *         may try again. Taking a retry consumes the shared budget.
+	 */
+	boolean tryRetry(int attempt) {
+		if (attempt >= maxAttempts) {
+			return false;
+		}
+		long budget = minRetryBudget + (long) (requests.get() * retryBudgetRatio);
+		while (true) {
+			long used = retries.get();
+			if (used >= budget) {
+				System.out.println("\nRetry budget exhausted (" + used + " retries for "
+						+ requests.get() + " requests), not retrying.");
+				return false;
+			}
+			if (retries.compareAndSet(used, used + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * @return a random delay between zero and the exponential backoff for
+	 *         {@code attempt}, capped at the maximum backoff.
+	 */
+	Duration backoff(int attempt) {
+		long capMillis = maxBackoff.toMillis();
+		long exponentialMillis = initialBackoff.toMillis() << Math.min(attempt - 1, 30);
+		long ceilingMillis = exponentialMillis <= 0 ? capMillis
+				: Math.min(capMillis, exponentialMillis);
+		return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceilingMillis + 1));
+	}
+
+	Duration getMaxBackoff() {
+		return maxBackoff;
+	}
+
+}
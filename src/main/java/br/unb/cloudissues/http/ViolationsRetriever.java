@@ -1,25 +1,43 @@
 package br.unb.cloudissues.http;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import br.unb.cloudissues.model.Issue;
+import br.unb.cloudissues.model.IssuesPage;
 import br.unb.cloudissues.model.Project;
 import br.unb.cloudissues.model.Resolutions;
 import br.unb.cloudissues.model.Statuses;
 import br.unb.cloudissues.model.Violations;
+import br.unb.cloudissues.model.ViolationsFacets;
+import br.unb.cloudissues.util.SonarDates;
 import br.unb.cloudissues.util.Utils;
 import okhttp3.HttpUrl;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
 
 public class ViolationsRetriever {
 
@@ -30,17 +48,16 @@ public class ViolationsRetriever {
 
 	private static final Integer DEFAULT_PAGE_SIZE = 500;
 
-	private static final int DEFAULT_TIME_TO_WAIT_IN_MILISECONDS_BETWEEN_REQUESTS = 6500;
-	private static final int DEFAULT_MAX_REQUESTS_TO_WAIT = 10;
+	private static final int DEFAULT_CONCURRENT_PAGE_REQUESTS = 1;
 
-	private static int count = 1;
+	public static final List<String> DEFAULT_FACETS = Collections.unmodifiableList(
+			Arrays.asList("rules", "severities", "types", "resolutions", "statuses"));
 
 	private final boolean isSonarCloud;
 
 	private final String baseUrl;
 
-	private final int timeToWaitInMiliSecondsBetweenRequests;
-	private final int maxRequestsToWait;
+	private final HttpExecutor httpExecutor;
 
 	private final List<Resolutions> resolutions;
 
@@ -52,24 +69,55 @@ public class ViolationsRetriever {
 
 	private final boolean olderVersion;
 
-	private final OkHttpClient httpClient = new OkHttpClient().newBuilder()
-			.connectTimeout(60, TimeUnit.SECONDS).writeTimeout(60, TimeUnit.SECONDS)
-			.readTimeout(60, TimeUnit.SECONDS).build();
+	private final int concurrentPageRequests;
+
+	// runs the page requests of every project, null when pages are sequential
+	private final ExecutorService pageExecutor;
+
+	private final boolean shardByCreationDate;
+
+	private final PageCheckpoint pageCheckpoint;
+
+	private final IssuesSearchResponseParser responseParser = new IssuesSearchResponseParser();
+
+	@FunctionalInterface
+	private interface PageConsumer {
+		void accept(int pageIndex, List<Issue> issues) throws IOException;
+	}
+
+	/**
+	 * Requests the page at {@code url}, the {@code pageIndex}-th of a list of
+	 * urls, and does something with its body.
+	 */
+	@FunctionalInterface
+	private interface PageRequest {
+		void request(int pageIndex, String url) throws IOException, InterruptedException;
+	}
 
 	private ViolationsRetriever(Builder builder) {
 		isSonarCloud = Optional.ofNullable(builder.isSonarCloud).orElse(true);
 		baseUrl = Optional.ofNullable(builder.baseUrl).orElse(DEFAULT_SONAR_CLOUD_URL);
 		resolutions = Optional.ofNullable(builder.resolutions).orElse(Collections.emptyList());
 		statuses = Optional.ofNullable(builder.statuses).orElse(Collections.emptyList());
-		timeToWaitInMiliSecondsBetweenRequests = Optional
-				.ofNullable(builder.timeToWaitInMiliSecondsBetweenRequests)
-				.orElse(DEFAULT_TIME_TO_WAIT_IN_MILISECONDS_BETWEEN_REQUESTS);
-		maxRequestsToWait = Optional.ofNullable(builder.maxRequestsToWait)
-				.orElse(DEFAULT_MAX_REQUESTS_TO_WAIT);
+		httpExecutor = Optional.ofNullable(builder.httpExecutor).orElse(HttpExecutor.shared());
 		pageSize = Optional.ofNullable(builder.pageSize).orElse(DEFAULT_PAGE_SIZE);
 		maxResultsForProject = Optional.ofNullable(builder.maxResultsForProject)
 				.orElse(Integer.MAX_VALUE);
 		olderVersion = builder.olderVersion;
+		concurrentPageRequests = Optional.ofNullable(builder.concurrentPageRequests)
+				.orElse(DEFAULT_CONCURRENT_PAGE_REQUESTS);
+		if (concurrentPageRequests < 1) {
+			throw new IllegalArgumentException("concurrentPageRequests must be at least 1");
+		}
+		pageExecutor = builder.pageExecutor != null || concurrentPageRequests == 1
+				? builder.pageExecutor
+				: Executors.newFixedThreadPool(concurrentPageRequests, runnable -> {
+					Thread thread = new Thread(runnable, "page-requests");
+					thread.setDaemon(true);
+					return thread;
+				});
+		shardByCreationDate = builder.shardByCreationDate;
+		pageCheckpoint = Optional.ofNullable(builder.pageCheckpoint).orElse(PageCheckpoint.NONE);
 	}
 
 	public static class Builder {
@@ -78,11 +126,14 @@ public class ViolationsRetriever {
 		private String baseUrl;
 		private List<Resolutions> resolutions;
 		private List<Statuses> statuses;
-		private Integer timeToWaitInMiliSecondsBetweenRequests;
-		private Integer maxRequestsToWait;
+		private HttpExecutor httpExecutor;
 		private Integer pageSize;
 		private Integer maxResultsForProject;
 		private boolean olderVersion = false;
+		private Integer concurrentPageRequests;
+		private ExecutorService pageExecutor;
+		private boolean shardByCreationDate = false;
+		private PageCheckpoint pageCheckpoint;
 
 		public Builder withIsSonarCloud(boolean isSonarCloud) {
 			this.isSonarCloud = isSonarCloud;
@@ -105,13 +156,8 @@ public class ViolationsRetriever {
 			return this;
 		}
 
-		public Builder withTimeToWaitInMiliSecondsBetweenRequests(int time) {
-			timeToWaitInMiliSecondsBetweenRequests = time;
-			return this;
-		}
-
-		public Builder withMaxRequestsToWait(int maxRequestsToWait) {
-			this.maxRequestsToWait = maxRequestsToWait;
+		public Builder withHttpExecutor(HttpExecutor httpExecutor) {
+			this.httpExecutor = httpExecutor;
 			return this;
 		}
 
@@ -130,6 +176,45 @@ public class ViolationsRetriever {
 			return this;
 		}
 
+		/**
+		 * Once the total is known from the first page, requests the remaining pages
+		 * with up to {@code concurrentPageRequests} requests in flight. Pages are
+		 * still returned in page order. Defaults to 1 (one page after the other).
+		 */
+		public Builder withConcurrentPageRequests(int concurrentPageRequests) {
+			this.concurrentPageRequests = concurrentPageRequests;
+			return this;
+		}
+
+		/**
+		 * Runs the concurrent page requests on {@code pageExecutor}, which can be
+		 * shared by several retrievers and projects and is shut down by the caller,
+		 * instead of on threads of this retriever. Each project still has at most
+		 * {@code concurrentPageRequests} pages in flight.
+		 */
+		public Builder withPageExecutor(ExecutorService pageExecutor) {
+			this.pageExecutor = pageExecutor;
+			return this;
+		}
+
+		/**
+		 * Projects with more than 10,000 issues are split into creation date windows
+		 * small enough for Sonar to return all of their issues, instead of being
+		 * truncated.
+		 */
+		public Builder withShardingByCreationDate(boolean shardByCreationDate) {
+			this.shardByCreationDate = shardByCreationDate;
+			return this;
+		}
+
+		/**
+		 * Pages already saved in {@code pageCheckpoint} are not requested again.
+		 */
+		public Builder withPageCheckpoint(PageCheckpoint pageCheckpoint) {
+			this.pageCheckpoint = pageCheckpoint;
+			return this;
+		}
+
 		public ViolationsRetriever build() {
 			return new ViolationsRetriever(this);
 		}
@@ -139,8 +224,6 @@ public class ViolationsRetriever {
 	public List<Violations> retrieve(List<Project> projects) {
 		List<Violations> violations = new ArrayList<>();
 
-		count = 1;
-
 		projects.stream().forEach(project -> {
 			try {
 				System.out.println("\nretrieving " + project.getProjectKey() + " ...");
@@ -153,6 +236,262 @@ public class ViolationsRetriever {
 		return violations;
 	}
 
+	/**
+	 * Same as {@link #retrieve(List)} for a single project, but failures are
+	 * thrown instead of printed, so callers know the project is missing.
+	 */
+	public Violations retrieve(Project project) throws IOException, InterruptedException {
+		System.out.println("\nretrieving " + project.getProjectKey() + " ...");
+		return httpRequestViolationsForProject(project);
+	}
+
+	/**
+	 * Same as {@link #retrieve(Project)}, but each page is handed to {@code sink}
+	 * as soon as it is retrieved instead of being kept, so memory is bounded by
+	 * the pages in flight whatever the size of the project. With concurrent page
+	 * requests, pages reach the sink out of order.
+	 * 
+	 * @return the total of issues of the project.
+	 */
+	public long retrieve(Project project, IssueSink sink)
+			throws IOException, InterruptedException {
+		System.out.println("\nretrieving " + project.getProjectKey() + " ...");
+		return requestAllPages(project.getProjectKey(), (index, issues) -> {
+			synchronized (sink) {
+				sink.accept(issues);
+			}
+		});
+	}
+
+	/**
+	 * Retrieves only the issues of {@code project} updated after
+	 * {@code updatedAfter} (an {@link Issue#getUpdateDate()} value). Sonar has no
+	 * filter on update date, so pages are requested most recently updated first
+	 * and requests stop at the first issue older than {@code updatedAfter}.
+	 * Issues updated in the same second as {@code updatedAfter} are returned
+	 * again, as they may have changed after the previous run read them. If more
+	 * issues were updated than Sonar returns, all issues of the project are
+	 * retrieved instead (see {@link #retrieve(Project)}).
+	 * 
+	 * @return the updated issues, with the total of issues matching the query
+	 *         regardless of update date.
+	 */
+	public Violations retrieveUpdatedAfter(Project project, String updatedAfter)
+			throws IOException, InterruptedException {
+		String projectKey = project.getProjectKey();
+		System.out.println("\nretrieving " + projectKey + " updated after " + updatedAfter + " ...");
+		OffsetDateTime watermark = parseDate(updatedAfter);
+
+		List<Issue> updatedIssues = new ArrayList<>();
+		long total;
+		boolean reachedWatermark = false;
+		int retrievedSoFar = 0;
+		int currentPage = 1;
+		do {
+			List<Issue> pageIssues = new ArrayList<>(pageSize);
+			total = retrieveIssuesForURL(buildUrlForPageByUpdateDate(projectKey, currentPage),
+					pageIssues::add);
+			for (Issue issue : pageIssues) {
+				if (parseDate(issue.getUpdateDate()).isBefore(watermark)) {
+					reachedWatermark = true;
+					break;
+				}
+				updatedIssues.add(issue);
+			}
+			currentPage++;
+			retrievedSoFar += pageSize;
+		} while (!reachedWatermark && retrievedSoFar < MAX_RESULTS_THAT_SONAR_RETURN
+				&& shouldRequestIssuesForMorePages(retrievedSoFar, total));
+
+		if (!reachedWatermark && retrievedSoFar < total) {
+			if (retrievedSoFar >= maxResultsForProject) {
+				System.out.println("Stopped at the max results for project: issues of "
+						+ projectKey + " updated after " + updatedAfter + " may be missing.");
+			} else {
+				System.out.println("More than " + updatedIssues.size() + " issues of " + projectKey
+						+ " updated after " + updatedAfter + ", retrieving all of them.");
+				return retrieve(project);
+			}
+		}
+
+		System.out.println(updatedIssues.size() + " issues updated.");
+		return new Violations(project, total, updatedIssues);
+	}
+
+	/**
+	 * Stores the raw body of every page of {@code project} in {@code archive},
+	 * parsing nothing but the totals needed to know which pages to request. When
+	 * sharding by creation date, the first page is not part of the manifest.
+	 * 
+	 * @return the manifest, written once every page is archived.
+	 */
+	public PageArchiveManifest archive(Project project, PageArchive archive, String stage)
+			throws IOException, InterruptedException {
+		String projectKey = project.getProjectKey();
+		PageArchiveManifest.Page firstPage = archive.store(stage, projectKey, pageName(0),
+				buildURL(projectKey), httpExecutor);
+		long total;
+		try (Reader body = archive.open(stage, projectKey, firstPage)) {
+			total = responseParser.parseTotal(body);
+		}
+
+		boolean sharded = shardByCreationDate && total > MAX_RESULTS_THAT_SONAR_RETURN;
+		List<String> urlsForPages = sharded ? buildUrlsForCreationDateShards(projectKey, total)
+				: buildUrlsForRemainingPages(total, projectKey);
+		int firstIndex = sharded ? 0 : 1;
+		PageArchiveManifest.Page[] pages = new PageArchiveManifest.Page[firstIndex
+				+ urlsForPages.size()];
+		if (!sharded) {
+			pages[0] = firstPage;
+		}
+		forEachUrl(urlsForPages, (index, url) -> pages[firstIndex + index] = archive.store(stage,
+				projectKey, pageName(firstIndex + index), url, httpExecutor));
+
+		PageArchiveManifest manifest = new PageArchiveManifest(stage, project, total, sharded,
+				Arrays.asList(pages));
+		archive.writeManifest(manifest);
+		return manifest;
+	}
+
+	private static String pageName(int pageIndex) {
+		return String.format("page-%05d", pageIndex + 1);
+	}
+
+	/**
+	 * Parses the pages stored by {@link #archive(Project, PageArchive, String)},
+	 * without any request: same result as {@link #retrieve(Project)} at the time
+	 * the pages were archived.
+	 */
+	public Violations ingest(PageArchiveManifest manifest, PageArchive archive)
+			throws IOException {
+		List<PageArchiveManifest.Page> pages = manifest.getPages();
+		List<Issue> issues = new ArrayList<>(
+				(int) Math.min(manifest.getTotal(), (long) pages.size() * pageSize));
+		// shards can return the same issue twice, see deduplicatingByKey
+		Set<String> seenKeys = manifest.isSharded() ? new HashSet<>() : null;
+		for (PageArchiveManifest.Page page : pages) {
+			try (Reader body = archive.open(manifest, page)) {
+				responseParser.parse(body, issue -> {
+					if (seenKeys == null || seenKeys.add(issue.getKey())) {
+						issues.add(issue);
+					}
+				});
+			}
+		}
+		return new Violations(manifest.getProject(), manifest.getTotal(), issues);
+	}
+
+	/**
+	 * Counts the issues of {@code project} by each facet in
+	 * {@link #DEFAULT_FACETS} with a single request of one issue, instead of
+	 * retrieving the issues. Counts are not limited to
+	 * {@link #MAX_RESULTS_THAT_SONAR_RETURN}, but Sonar only returns the most
+	 * frequent values of each facet (e.g. the top 100 rules).
+	 */
+	public ViolationsFacets retrieveFacets(Project project)
+			throws IOException, InterruptedException {
+		return retrieveFacets(project, DEFAULT_FACETS);
+	}
+
+	public ViolationsFacets retrieveFacets(Project project, List<String> facets)
+			throws IOException, InterruptedException {
+		String projectKey = project.getProjectKey();
+		System.out.println("\ncounting " + projectKey + " ...");
+
+		HttpUrl.Builder urlBuilder = doBuildURL(baseUrl, projectKey);
+		urlBuilder.setQueryParameter(getPageSizeQueryParamKey(), "1");
+		urlBuilder.addQueryParameter("facets", String.join(",", facets));
+
+		Map<String, Map<String, Long>> countsByFacet = new LinkedHashMap<>();
+		long total = httpExecutor.execute(urlBuilder.build().toString(),
+				body -> responseParser.parse(body, issue -> {
+				}, countsByFacet::put));
+		return new ViolationsFacets(project, total, countsByFacet);
+	}
+
+	/**
+	 * Retrieves the issues of several small projects with a single query over
+	 * all of their component keys, then splits them by {@link Issue#getProject()}.
+	 * If the projects together have more issues than Sonar returns, or
+	 * {@link Builder#withMaxResultsForProject(Integer)} limits each project,
+	 * they are retrieved one by one instead.
+	 * 
+	 * @return one {@link Violations} per project, in the order of {@code batch}.
+	 */
+	public List<Violations> retrieveBatch(List<Project> batch)
+			throws IOException, InterruptedException {
+		if (batch.size() == 1 || maxResultsForProject != Integer.MAX_VALUE) {
+			return retrieveOneByOne(batch);
+		}
+		String componentKeys = componentKeysOf(batch);
+		System.out.println("\nretrieving " + batch.size() + " projects: " + componentKeys + " ...");
+
+		IssuesPage firstPage = requestPage(componentKeys, buildURL(componentKeys));
+		long total = firstPage.getTotal();
+		if (total > MAX_RESULTS_THAT_SONAR_RETURN) {
+			System.out.println("total: " + total + ", above " + MAX_RESULTS_THAT_SONAR_RETURN
+					+ " results, retrieving the projects one by one.");
+			return retrieveOneByOne(batch);
+		}
+
+		List<Issue> issues = new ArrayList<>((int) total);
+		issues.addAll(firstPage.getIssues());
+		if (total > pageSize) {
+			issues.addAll(requestsIssuesForMoreThanOnePage(total, componentKeys));
+		}
+		return splitByProject(batch, issues);
+	}
+
+	private List<Violations> retrieveOneByOne(List<Project> batch)
+			throws IOException, InterruptedException {
+		List<Violations> violations = new ArrayList<>(batch.size());
+		for (Project project : batch) {
+			violations.add(retrieve(project));
+		}
+		return violations;
+	}
+
+	/**
+	 * @return the value of componentKeys that queries all projects of
+	 *         {@code batch}.
+	 */
+	public static String componentKeysOf(List<Project> batch) {
+		return batch.stream().map(Project::getProjectKey).collect(Collectors.joining(","));
+	}
+
+	private List<Violations> splitByProject(List<Project> batch, List<Issue> issues) {
+		Map<String, List<Issue>> issuesByProjectKey = new LinkedHashMap<>();
+		batch.forEach(project -> issuesByProjectKey.put(project.getProjectKey(), new ArrayList<>()));
+		for (Issue issue : issues) {
+			List<Issue> projectIssues = issuesByProjectKey.get(issue.getProject());
+			if (projectIssues == null) {
+				System.out.println("Issue " + issue.getKey() + " of unexpected project "
+						+ issue.getProject() + " ignored.");
+				continue;
+			}
+			projectIssues.add(issue);
+		}
+
+		List<Violations> violations = new ArrayList<>(batch.size());
+		for (Project project : batch) {
+			List<Issue> projectIssues = issuesByProjectKey.get(project.getProjectKey());
+			violations.add(new Violations(project, (long) projectIssues.size(), projectIssues));
+		}
+		return violations;
+	}
+
+	private static OffsetDateTime parseDate(String date) {
+		return OffsetDateTime.parse(date, Utils.formatterForOffsetDateWithoutCollon());
+	}
+
+	private String buildUrlForPageByUpdateDate(String projectKey, Integer page) {
+		HttpUrl.Builder urlBuilder = doBuildURL(baseUrl, projectKey);
+		urlBuilder.addQueryParameter("s", "UPDATE_DATE");
+		urlBuilder.addQueryParameter("asc", "false");
+		urlBuilder.addQueryParameter("p", page.toString());
+		return urlBuilder.build().toString();
+	}
+
 	private String buildURL(String projectKey) {
 		return doBuildURL(baseUrl, projectKey).build().toString();
 	}
@@ -201,79 +540,256 @@ public class ViolationsRetriever {
 
 	private Violations httpRequestViolationsForProject(Project project)
 			throws IOException, InterruptedException {
-		String projectKey = project.getProjectKey();
+		Map<Integer, List<Issue>> issuesByPage = new ConcurrentSkipListMap<>();
+		long total = requestAllPages(project.getProjectKey(), issuesByPage::put);
 
-		String url = buildURL(projectKey);
+		List<Issue> issues = new ArrayList<>((int) total);
+		issuesByPage.values().forEach(issues::addAll);
+		return new Violations(project, total, issues);
+	}
 
-		String responseBody = retrieveResponseBodyForURL(url);
-		Map<String, Object> responseMap = Utils.responseToMap(responseBody);
-		Long total = retrieveTotal(responseMap);
+	/**
+	 * Requests every page of {@code projectKey}, sharding by creation date when
+	 * configured to, and hands each page to {@code pageConsumer} with its index
+	 * in page order. With concurrent page requests, pages are handed in whatever
+	 * order they arrive, from several threads.
+	 * 
+	 * @return the total of issues of the project.
+	 */
+	private long requestAllPages(String projectKey, PageConsumer pageConsumer)
+			throws IOException, InterruptedException {
+		IssuesPage firstPage = requestPage(projectKey, buildURL(projectKey));
+		long total = firstPage.getTotal();
 
-		List<Issue> issues = new ArrayList<>(total.intValue());
-		@SuppressWarnings("unchecked")
-		List<Issue> firstPageIssues = Optional.ofNullable((List<Issue>) responseMap.get("issues"))
-				.orElse(Collections.emptyList());
-		issues.addAll(firstPageIssues);
+		if (shardByCreationDate && total > MAX_RESULTS_THAT_SONAR_RETURN) {
+			System.out.println("total: " + total);
+			System.out.println("above " + MAX_RESULTS_THAT_SONAR_RETURN
+					+ " results, splitting the query by creation date.");
+			forEachPage(projectKey, buildUrlsForCreationDateShards(projectKey, total),
+					deduplicatingByKey(pageConsumer));
+			return total;
+		}
 
+		pageConsumer.accept(0, firstPage.getIssues());
 		if (total > pageSize) {
 			System.out.println("total: " + total);
 			System.out.println("requesting for more pages.");
-			issues.addAll(requestsIssuesForMoreThanOnePage(total, projectKey));
+			forEachPage(projectKey, buildUrlsForRemainingPages(total, projectKey),
+					(index, issues) -> pageConsumer.accept(index + 1, issues));
+			System.out.println();
 		}
+		return total;
+	}
 
-		return new Violations(project, total, issues);
+	/**
+	 * Shards can return the same issue twice (e.g. when it is created while they
+	 * are requested), only its first occurrence is kept.
+	 */
+	private static PageConsumer deduplicatingByKey(PageConsumer pageConsumer) {
+		Set<String> seenKeys = ConcurrentHashMap.newKeySet();
+		return (index, issues) -> pageConsumer.accept(index, issues.stream()
+				.filter(issue -> seenKeys.add(issue.getKey())).collect(Collectors.toList()));
 	}
 
-	@SuppressWarnings("unchecked")
-	private Long retrieveTotal(Map<String, Object> responseMap) {
-		final String totalKey = "total";
-		if (responseMap.containsKey(totalKey)) {
-			return (((Double) responseMap.get(totalKey))).longValue();
-		} else {
-			Map<String, Double> paging = (Map<String, Double>) responseMap.get("paging");
-			return paging.get(totalKey).longValue();
+	/**
+	 * Halves the creation date window until every shard has at most
+	 * {@link #MAX_RESULTS_THAT_SONAR_RETURN} issues.
+	 * 
+	 * @return the urls of all pages of all shards.
+	 */
+	private List<String> buildUrlsForCreationDateShards(String projectKey, long total)
+			throws IOException, InterruptedException {
+		List<DateWindow> shards = new ArrayList<>();
+		splitUntilUnderMaxResults(projectKey,
+				new DateWindow(Instant.EPOCH, shardsUpperBound(projectKey)), total, shards);
+		System.out.println(shards.size() + " creation date shards.");
+
+		List<String> urlsForPages = new ArrayList<>();
+		long retrievedSoFar = 0;
+		for (DateWindow shard : shards) {
+			int pages = (int) ((shard.total + pageSize - 1) / pageSize);
+			for (int page = 1; page <= pages && retrievedSoFar < maxResultsForProject; page++) {
+				urlsForPages.add(buildUrlForPageInWindow(projectKey, shard, page));
+				retrievedSoFar += pageSize;
+			}
 		}
+		return urlsForPages;
 	}
 
-	private String retrieveResponseBodyForURL(String url) throws IOException, InterruptedException {
-		tryNotToFloodSonarWithLotsOfRequests();
-		return doRetrieveResponseBodyForURL(url);
+	/**
+	 * The day after the newest issue of the project was created, so the same
+	 * issues always yield the same shard urls, which the response cache and the
+	 * page checkpoints can then recognize across runs.
+	 */
+	private Instant shardsUpperBound(String projectKey) throws IOException, InterruptedException {
+		HttpUrl.Builder urlBuilder = doBuildURL(baseUrl, projectKey);
+		urlBuilder.setQueryParameter(getPageSizeQueryParamKey(), "1");
+		urlBuilder.addQueryParameter("s", "CREATION_DATE");
+		urlBuilder.addQueryParameter("asc", "false");
+		List<Issue> newest = new ArrayList<>(1);
+		retrieveIssuesForURL(urlBuilder.build().toString(), newest::add);
+
+		long newestCreation = newest.isEmpty() ? SonarDates.NO_DATE
+				: SonarDates.toEpochSecond(newest.get(0).getCreationDate());
+		Instant newestDay = newestCreation == SonarDates.NO_DATE ? Instant.now()
+				: Instant.ofEpochSecond(newestCreation);
+		return newestDay.truncatedTo(ChronoUnit.DAYS).plus(1, ChronoUnit.DAYS);
 	}
 
-	private void tryNotToFloodSonarWithLotsOfRequests() throws InterruptedException {
-		if (count % maxRequestsToWait == 0) {
-			System.out.println("\nWaiting for "
-					+ (timeToWaitInMiliSecondsBetweenRequests / 1000.0 + " seconds..."));
-			System.out.println(count + " requests so far.");
-			Thread.sleep(timeToWaitInMiliSecondsBetweenRequests);
+	private void splitUntilUnderMaxResults(String projectKey, DateWindow window, long windowTotal,
+			List<DateWindow> shards) throws IOException, InterruptedException {
+		if (windowTotal == 0) {
+			return;
+		}
+		if (windowTotal <= MAX_RESULTS_THAT_SONAR_RETURN || !window.canBeSplit()) {
+			if (windowTotal > MAX_RESULTS_THAT_SONAR_RETURN) {
+				System.out.println("Cannot split " + window + " any further, only the first "
+						+ MAX_RESULTS_THAT_SONAR_RETURN + " of " + windowTotal
+						+ " issues will be retrieved.");
+			}
+			window.total = windowTotal;
+			shards.add(window);
+			return;
 		}
-		count++;
+
+		DateWindow firstHalf = window.firstHalf();
+		DateWindow secondHalf = window.secondHalf();
+		long firstHalfTotal = retrieveIssuesForURL(buildUrlForTotalInWindow(projectKey, firstHalf),
+				issue -> {
+				});
+		// windows are half-open and disjoint, the second half holds the rest
+		long secondHalfTotal = Math.max(0, windowTotal - firstHalfTotal);
+
+		splitUntilUnderMaxResults(projectKey, firstHalf, firstHalfTotal, shards);
+		splitUntilUnderMaxResults(projectKey, secondHalf, secondHalfTotal, shards);
 	}
 
-	private String doRetrieveResponseBodyForURL(String url) throws IOException {
-		Request request = new Request.Builder().url(url).build();
-		Response response = httpClient.newCall(request).execute();
-		return response.body().string();
+	private String buildUrlForTotalInWindow(String projectKey, DateWindow window) {
+		HttpUrl.Builder urlBuilder = doBuildURL(baseUrl, projectKey);
+		urlBuilder.setQueryParameter(getPageSizeQueryParamKey(), "1");
+		window.addQueryParameters(urlBuilder);
+		return urlBuilder.build().toString();
+	}
+
+	private String buildUrlForPageInWindow(String projectKey, DateWindow window, Integer page) {
+		HttpUrl.Builder urlBuilder = doBuildURL(baseUrl, projectKey);
+		window.addQueryParameters(urlBuilder);
+		urlBuilder.addQueryParameter("p", page.toString());
+		return urlBuilder.build().toString();
+	}
+
+	/**
+	 * @return the total of issues for the query, as informed by the response.
+	 */
+	private long retrieveIssuesForURL(String url, Consumer<Issue> issueConsumer)
+			throws IOException, InterruptedException {
+		return httpExecutor.execute(url, body -> responseParser.parse(body, issueConsumer));
 	}
 
 	private List<Issue> requestsIssuesForMoreThanOnePage(Long total, String projectKey)
 			throws IOException, InterruptedException {
-		int listSize = total.intValue() - pageSize;
-		List<Issue> issues = new ArrayList<>(listSize);
+		Map<Integer, List<Issue>> issuesByPage = new ConcurrentSkipListMap<>();
+		forEachPage(projectKey, buildUrlsForRemainingPages(total, projectKey), issuesByPage::put);
+
+		List<Issue> issues = new ArrayList<>(total.intValue() - pageSize);
+		issuesByPage.values().forEach(issues::addAll);
+		System.out.println();
+		return issues;
+	}
+
+	private void forEachPage(String projectKey, List<String> urlsForPages,
+			PageConsumer pageConsumer) throws IOException, InterruptedException {
+		forEachUrl(urlsForPages,
+				(index, url) -> pageConsumer.accept(index, requestIssues(projectKey, url)));
+	}
+
+	private void forEachUrl(List<String> urlsForPages, PageRequest pageRequest)
+			throws IOException, InterruptedException {
+		if (concurrentPageRequests > 1 && urlsForPages.size() > 1) {
+			requestPagesConcurrently(urlsForPages, pageRequest);
+		} else {
+			requestPagesSequentially(urlsForPages, pageRequest);
+		}
+	}
+
+	private List<String> buildUrlsForRemainingPages(Long total, String projectKey) {
+		List<String> urlsForPages = new ArrayList<>();
 
 		int retrievedSoFar = pageSize;
 		int currentPage = 2;
 
 		while (shouldRequestIssuesForMorePages(retrievedSoFar, total)) {
-			String urlForPage = buildUrlForPage(projectKey, currentPage);
-			issues.addAll(requestIssues(urlForPage));
-			System.out.print("\nretrieving page " + currentPage + "...");
-
+			urlsForPages.add(buildUrlForPage(projectKey, currentPage));
 			currentPage++;
 			retrievedSoFar += pageSize;
 		}
-		System.out.println();
-		return issues;
+		return urlsForPages;
+	}
+
+	private void requestPagesSequentially(List<String> urlsForPages, PageRequest pageRequest)
+			throws IOException, InterruptedException {
+		for (int index = 0; index < urlsForPages.size(); index++) {
+			pageRequest.request(index, urlsForPages.get(index));
+			System.out.print("\nretrieving page " + (index + 1) + " of " + urlsForPages.size()
+					+ "...");
+		}
+	}
+
+	/**
+	 * Each page is handled by the thread that requested it, and a page is only
+	 * submitted to {@link #pageExecutor} once an earlier one is done, so no more
+	 * than {@link #concurrentPageRequests} pages are held at a time.
+	 */
+	private void requestPagesConcurrently(List<String> urlsForPages, PageRequest pageRequest)
+			throws IOException, InterruptedException {
+		int inFlight = Math.min(concurrentPageRequests, urlsForPages.size());
+		System.out.print("\nretrieving " + urlsForPages.size() + " pages using " + inFlight
+				+ " concurrent requests...");
+
+		CompletionService<Void> completionService = new ExecutorCompletionService<>(
+				pageExecutor);
+		List<Future<Void>> pages = new ArrayList<>(urlsForPages.size());
+		try {
+			int next = 0;
+			for (; next < inFlight; next++) {
+				pages.add(submitPage(completionService, urlsForPages, next, pageRequest));
+			}
+			for (int finished = 0; finished < urlsForPages.size(); finished++) {
+				waitForPage(completionService.take());
+				if (next < urlsForPages.size()) {
+					pages.add(submitPage(completionService, urlsForPages, next, pageRequest));
+					next++;
+				}
+			}
+		} finally {
+			// the executor is shared: only the pages of this call are cancelled
+			for (Future<Void> page : pages) {
+				page.cancel(true);
+			}
+		}
+	}
+
+	private static Future<Void> submitPage(CompletionService<Void> completionService,
+			List<String> urlsForPages, int pageIndex, PageRequest pageRequest) {
+		return completionService.submit(() -> {
+			pageRequest.request(pageIndex, urlsForPages.get(pageIndex));
+			return null;
+		});
+	}
+
+	private void waitForPage(Future<Void> page) throws IOException, InterruptedException {
+		try {
+			page.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof InterruptedException) {
+				throw (InterruptedException) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
 	}
 
 	private boolean shouldRequestIssuesForMorePages(int retrievedSoFar, Long total) {
@@ -305,12 +821,73 @@ public class ViolationsRetriever {
 		return urlBuilder.build().toString();
 	}
 
-	private List<Issue> requestIssues(String url) throws IOException, InterruptedException {
-		String responseBody = retrieveResponseBodyForURL(url);
-		Map<String, Object> responseMap = Utils.responseToMap(responseBody);
-		@SuppressWarnings("unchecked")
-		List<Issue> issues = (List<Issue>) responseMap.get("issues");
-		return Optional.ofNullable(issues).orElse(Collections.emptyList());
+	private List<Issue> requestIssues(String projectKey, String url)
+			throws IOException, InterruptedException {
+		return requestPage(projectKey, url).getIssues();
+	}
+
+	/**
+	 * Serves the page from {@link #pageCheckpoint} when an earlier run already
+	 * fetched it, and saves it there otherwise.
+	 */
+	private IssuesPage requestPage(String projectKey, String url)
+			throws IOException, InterruptedException {
+		Optional<IssuesPage> restored = pageCheckpoint.restore(projectKey, url);
+		if (restored.isPresent()) {
+			return restored.get();
+		}
+		List<Issue> issues = new ArrayList<>(pageSize);
+		long total = retrieveIssuesForURL(url, issues::add);
+		IssuesPage page = new IssuesPage(total, issues);
+		pageCheckpoint.save(projectKey, url);
+		return page;
+	}
+
+	/**
+	 * [from, to) window of issue creation dates, the same semantics Sonar gives to
+	 * createdAfter (inclusive) and createdBefore (exclusive).
+	 */
+	private static class DateWindow {
+
+		private static final DateTimeFormatter SONAR_DATE_FORMATTER = DateTimeFormatter
+				.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ").withZone(ZoneOffset.UTC);
+
+		private final Instant from;
+
+		private final Instant to;
+
+		private long total;
+
+		DateWindow(Instant from, Instant to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		boolean canBeSplit() {
+			return Duration.between(from, to).getSeconds() > 1;
+		}
+
+		DateWindow firstHalf() {
+			return new DateWindow(from, middle());
+		}
+
+		DateWindow secondHalf() {
+			return new DateWindow(middle(), to);
+		}
+
+		private Instant middle() {
+			return from.plusSeconds(Duration.between(from, to).getSeconds() / 2);
+		}
+
+		void addQueryParameters(HttpUrl.Builder urlBuilder) {
+			urlBuilder.addQueryParameter("createdAfter", SONAR_DATE_FORMATTER.format(from));
+			urlBuilder.addQueryParameter("createdBefore", SONAR_DATE_FORMATTER.format(to));
+		}
+
+		@Override
+		public String toString() {
+			return "[" + from + ", " + to + ")";
+		}
 	}
 
 }
@@ -0,0 +1,138 @@
+package br.unb.cloudissues.mining;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import br.unb.cloudissues.http.ViolationsRetriever;
+import br.unb.cloudissues.model.Issue;
+import br.unb.cloudissues.model.Project;
+import br.unb.cloudissues.model.Violations;
+import br.unb.cloudissues.util.Utils;
+
+/**
+ * Refreshes the per-project files written by a previous run. Only the issues
+ * updated after the project's watermark are requested; they replace the
+ * stored issues with the same key and the rest of the file is kept.
+ * <p>
+ * Issues that stop matching the retriever's filters (e.g. a fixed issue that
+ * is reopened) are not removed from the stored file.
+ */
+public class IncrementalViolationsMiner {
+
+	private final ViolationsRetriever violationsRetriever;
+
+	private final UpdateDateWatermarks watermarks;
+
+	private final String directory;
+
+	private final boolean prettyPrinting;
+
+	/**
+	 * @param prettyPrinting see
+	 *                       {@link Utils#writeObjToFileAsJSON(Object, String, boolean)}.
+	 */
+	public IncrementalViolationsMiner(ViolationsRetriever violationsRetriever,
+			UpdateDateWatermarks watermarks, String directory, boolean prettyPrinting) {
+		this.violationsRetriever = violationsRetriever;
+		this.watermarks = watermarks;
+		this.directory = directory;
+		this.prettyPrinting = prettyPrinting;
+	}
+
+	public IncrementalViolationsMiner(ViolationsRetriever violationsRetriever,
+			UpdateDateWatermarks watermarks, String directory) {
+		this(violationsRetriever, watermarks, directory, true);
+	}
+
+	/**
+	 * Mines {@code project} fully if it has no file yet, incrementally otherwise.
+	 * Files mined before watermarks existed get theirs from the stored issues.
+	 * The file is only rewritten if an issue changed, since the issues updated
+	 * at the watermark itself are always retrieved again.
+	 */
+	public void mine(Project project) throws IOException, InterruptedException {
+		String jsonPath = Utils.generateJsonPathToSaveForEachProject(directory,
+				project.getProjectName());
+		String projectKey = project.getProjectKey();
+
+		if (!Files.exists(Paths.get(jsonPath))) {
+			mineFully(project, jsonPath);
+			return;
+		}
+
+		List<Violations> stored = null;
+		if (!watermarks.get(projectKey).isPresent()) {
+			stored = readStored(jsonPath);
+			watermarks.advance(projectKey, storedIssues(stored));
+		}
+		Optional<String> watermark = watermarks.get(projectKey);
+		if (!watermark.isPresent()) {
+			mineFully(project, jsonPath);
+			return;
+		}
+
+		Violations updated = violationsRetriever.retrieveUpdatedAfter(project, watermark.get());
+		if (!updated.getIssues().isEmpty()) {
+			if (stored == null) {
+				stored = readStored(jsonPath);
+			}
+			Optional<Violations> merged = merge(project, stored, updated);
+			if (merged.isPresent()) {
+				Utils.writeObjToFileAsJSON(Arrays.asList(merged.get()), jsonPath, prettyPrinting);
+			}
+		}
+		advanceWatermark(projectKey, updated.getIssues());
+	}
+
+	private void mineFully(Project project, String jsonPath)
+			throws IOException, InterruptedException {
+		Violations violations = violationsRetriever.retrieve(project);
+		Utils.writeObjToFileAsJSON(Arrays.asList(violations), jsonPath, prettyPrinting);
+		advanceWatermark(project.getProjectKey(), violations.getIssues());
+	}
+
+	private List<Violations> readStored(String jsonPath) throws IOException {
+		return Optional.ofNullable(Utils.retrieveCollectionFromJSONFile(jsonPath, Violations.class))
+				.orElse(Collections.emptyList());
+	}
+
+	private List<Issue> storedIssues(List<Violations> stored) {
+		if (stored.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return Optional.ofNullable(stored.get(0).getIssues()).orElse(Collections.emptyList());
+	}
+
+	/**
+	 * @return the stored issues with the updated ones replacing those with the
+	 *         same key, or empty if no issue changed.
+	 */
+	private Optional<Violations> merge(Project project, List<Violations> stored,
+			Violations updated) {
+		Map<String, Issue> issuesByKey = new LinkedHashMap<>();
+		storedIssues(stored).forEach(issue -> issuesByKey.put(issue.getKey(), issue));
+		boolean changed = false;
+		for (Issue issue : updated.getIssues()) {
+			changed |= !issue.equals(issuesByKey.put(issue.getKey(), issue));
+		}
+		if (!changed) {
+			return Optional.empty();
+		}
+		return Optional.of(new Violations(project, updated.getTotal(),
+				new ArrayList<>(issuesByKey.values())));
+	}
+
+	private void advanceWatermark(String projectKey, List<Issue> issues) throws IOException {
+		watermarks.advance(projectKey, issues);
+		watermarks.save();
+	}
+
+}
@@ -0,0 +1,134 @@
+package br.unb.cloudissues.mining;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import br.unb.cloudissues.model.Issue;
+import br.unb.cloudissues.model.Resolutions;
+import br.unb.cloudissues.model.Statuses;
+
+/**
+ * The resolutions and statuses a {@code ViolationsRetriever} would send to
+ * issues/search, evaluated on the client side instead. An empty set does not
+ * filter, just like an absent query parameter.
+ */
+public class IssueFilter {
+
+	// the statuses SonarQube gives to issues that have a resolution
+	private static final Set<Statuses> RESOLVED_STATUSES = Collections
+			.unmodifiableSet(EnumSet.of(Statuses.RESOLVED, Statuses.CLOSED));
+
+	private final Set<Resolutions> resolutions;
+
+	private final Set<Statuses> statuses;
+
+	private IssueFilter(Collection<Resolutions> resolutions, Collection<Statuses> statuses) {
+		this.resolutions = Collections.unmodifiableSet(
+				resolutions.isEmpty() ? EnumSet.noneOf(Resolutions.class) : EnumSet.copyOf(resolutions));
+		this.statuses = Collections.unmodifiableSet(
+				statuses.isEmpty() ? EnumSet.noneOf(Statuses.class) : EnumSet.copyOf(statuses));
+	}
+
+	public static IssueFilter resolutions(Resolutions... resolutions) {
+		return new IssueFilter(Arrays.asList(resolutions), Collections.emptySet());
+	}
+
+	public static IssueFilter statuses(Statuses... statuses) {
+		return new IssueFilter(Collections.emptySet(), Arrays.asList(statuses));
+	}
+
+	public static IssueFilter of(Collection<Resolutions> resolutions,
+			Collection<Statuses> statuses) {
+		return new IssueFilter(resolutions, statuses);
+	}
+
+	/**
+	 * @return the narrowest filter SonarQube can evaluate that still returns
+	 *         every issue matched by any of {@code filters}. Since issues/search
+	 *         ANDs its parameters, resolutions can only be kept when every filter
+	 *         uses them alone; otherwise the union is expressed with statuses,
+	 *         counting a resolution as {@link Statuses#RESOLVED} or
+	 *         {@link Statuses#CLOSED}.
+	 */
+	public static IssueFilter union(Collection<IssueFilter> filters) {
+		if (filters.stream().anyMatch(IssueFilter::matchesEverything)) {
+			return of(Collections.emptySet(), Collections.emptySet());
+		}
+		if (filters.stream().allMatch(filter -> filter.statuses.isEmpty())) {
+			Set<Resolutions> resolutions = EnumSet.noneOf(Resolutions.class);
+			filters.forEach(filter -> resolutions.addAll(filter.resolutions));
+			return of(resolutions, Collections.emptySet());
+		}
+		Set<Statuses> statuses = EnumSet.noneOf(Statuses.class);
+		filters.forEach(filter -> statuses
+				.addAll(filter.statuses.isEmpty() ? RESOLVED_STATUSES : filter.statuses));
+		return of(Collections.emptySet(), statuses);
+	}
+
+	/**
+	 * @return disjoint filters that together return exactly the issues matched
+	 *         by {@code filters}, when the resolution-only ones can be requested
+	 *         apart from the others: their resolutions are then kept instead of
+	 *         being widened to {@link Statuses#RESOLVED} or {@link Statuses#CLOSED}
+	 *         (which also brings e.g. REMOVED issues). Otherwise, only the
+	 *         {@link #union(Collection)}.
+	 */
+	public static List<IssueFilter> queries(Collection<IssueFilter> filters) {
+		List<IssueFilter> byResolutions = filters.stream()
+				.filter(filter -> filter.statuses.isEmpty()).collect(Collectors.toList());
+		List<IssueFilter> byStatuses = filters.stream()
+				.filter(filter -> !filter.statuses.isEmpty()).collect(Collectors.toList());
+		if (byResolutions.isEmpty() || byStatuses.isEmpty()
+				|| byResolutions.stream().anyMatch(IssueFilter::matchesEverything)) {
+			return Collections.singletonList(union(filters));
+		}
+		IssueFilter statusesQuery = union(byStatuses);
+		if (statusesQuery.statuses.stream().anyMatch(RESOLVED_STATUSES::contains)) {
+			// both queries would return the resolved issues
+			return Collections.singletonList(union(filters));
+		}
+		return Arrays.asList(union(byResolutions), statusesQuery);
+	}
+
+	public boolean matches(Issue issue) {
+		return matchesResolution(issue.getResolution()) && matchesStatus(issue.getStatus());
+	}
+
+	private boolean matchesResolution(String resolution) {
+		if (resolutions.isEmpty()) {
+			return true;
+		}
+		return resolution != null
+				&& resolutions.stream().anyMatch(r -> r.getValue().equals(resolution));
+	}
+
+	private boolean matchesStatus(String status) {
+		if (statuses.isEmpty()) {
+			return true;
+		}
+		return status != null && statuses.stream().anyMatch(s -> s.toString().equals(status));
+	}
+
+	private boolean matchesEverything() {
+		return resolutions.isEmpty() && statuses.isEmpty();
+	}
+
+	public Resolutions[] getResolutions() {
+		return resolutions.toArray(new Resolutions[0]);
+	}
+
+	public Statuses[] getStatuses() {
+		return statuses.toArray(new Statuses[0]);
+	}
+
+	@Override
+	public String toString() {
+		return "IssueFilter [resolutions=" + resolutions + ", statuses=" + statuses + "]";
+	}
+
+}
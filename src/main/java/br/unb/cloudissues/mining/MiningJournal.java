@@ -0,0 +1,240 @@
+package br.unb.cloudissues.mining;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import br.unb.cloudissues.http.IssuesSearchResponseParser;
+import br.unb.cloudissues.http.PageCheckpoint;
+import br.unb.cloudissues.http.ResponseCache;
+import br.unb.cloudissues.mining.ProjectMiningScheduler.BatchTask;
+import br.unb.cloudissues.mining.ProjectMiningScheduler.ProjectTask;
+import br.unb.cloudissues.model.Issue;
+import br.unb.cloudissues.model.IssuesPage;
+import br.unb.cloudissues.model.Project;
+import okhttp3.HttpUrl;
+
+/**
+ * Append-only log of the work completed by a mining run, so a run that dies can
+ * be resumed. Each line is tab separated:
+ * 
+ * <pre>
+ * PAGE   stage projectKey page url
+ * DONE   stage projectKey
+ * FAILED stage projectKey message
+ * </pre>
+ * 
+ * Page bodies are not copied: a PAGE line only records that the page's body is
+ * in the {@link ResponseCache}, where a resumed run reads it whatever its age.
+ */
+public class MiningJournal implements Closeable {
+
+	private static final String PAGE = "PAGE";
+	private static final String DONE = "DONE";
+	private static final String FAILED = "FAILED";
+
+	private static final String SEPARATOR = "\t";
+
+	private final Set<String> doneProjects = ConcurrentHashMap.newKeySet();
+
+	private final Set<String> journaledPages = ConcurrentHashMap.newKeySet();
+
+	private final IssuesSearchResponseParser responseParser = new IssuesSearchResponseParser();
+
+	private final BufferedWriter writer;
+
+	private MiningJournal(Path journalPath) throws IOException {
+		if (Files.exists(journalPath)) {
+			Files.readAllLines(journalPath, StandardCharsets.UTF_8).forEach(this::replay);
+		}
+		Files.createDirectories(journalPath.toAbsolutePath().getParent());
+		writer = Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+
+	/**
+	 * @param resume if false, the journal of the previous run is discarded and
+	 *               everything is mined again.
+	 */
+	public static MiningJournal open(Path journalPath, boolean resume) throws IOException {
+		if (!resume) {
+			Files.deleteIfExists(journalPath);
+		}
+		return new MiningJournal(journalPath);
+	}
+
+	private void replay(String line) {
+		String[] fields = line.split(SEPARATOR, -1);
+		// a line cut short by a crash is ignored
+		if (fields.length < 3) {
+			return;
+		}
+		String projectId = projectId(fields[1], fields[2]);
+		switch (fields[0]) {
+		case PAGE:
+			if (fields.length >= 5) {
+				journaledPages.add(pageId(fields[1], fields[2], fields[4]));
+			}
+			break;
+		case DONE:
+			doneProjects.add(projectId);
+			break;
+		case FAILED:
+			doneProjects.remove(projectId);
+			break;
+		default:
+			break;
+		}
+	}
+
+	public boolean isDone(String stage, String projectKey) {
+		return doneProjects.contains(projectId(stage, projectKey));
+	}
+
+	/**
+	 * @return the projects of {@code projects} not yet DONE in {@code stage}.
+	 */
+	public List<Project> pending(String stage, List<Project> projects) {
+		List<Project> pending = projects.stream()
+				.filter(project -> !isDone(stage, project.getProjectKey()))
+				.collect(Collectors.toList());
+		if (pending.size() < projects.size()) {
+			System.out.println("\nskipping " + (projects.size() - pending.size())
+					+ " projects already mined in " + stage);
+		}
+		return pending;
+	}
+
+	/**
+	 * @return {@code task}, recording the project as DONE when it succeeds and as
+	 *         FAILED when it throws.
+	 */
+	public ProjectTask journaled(String stage, ProjectTask task) {
+		return project -> {
+			try {
+				task.mine(project);
+			} catch (IOException | RuntimeException e) {
+				projectFailed(stage, project.getProjectKey(), e);
+				throw e;
+			}
+			projectDone(stage, project.getProjectKey());
+		};
+	}
+
+	/**
+	 * Same as {@link #journaled(String, ProjectTask)} for every project of a
+	 * batch. Pages of a batch are journaled under its component keys.
+	 */
+	public BatchTask journaledBatch(String stage, BatchTask task) {
+		return batch -> {
+			try {
+				task.mine(batch);
+			} catch (IOException | RuntimeException e) {
+				for (Project project : batch) {
+					projectFailed(stage, project.getProjectKey(), e);
+				}
+				throw e;
+			}
+			for (Project project : batch) {
+				projectDone(stage, project.getProjectKey());
+			}
+		};
+	}
+
+	public void projectDone(String stage, String projectKey) throws IOException {
+		append(DONE, stage, projectKey);
+		doneProjects.add(projectId(stage, projectKey));
+	}
+
+	public void projectFailed(String stage, String projectKey, Exception cause)
+			throws IOException {
+		String message = String.valueOf(cause.getMessage()).replaceAll("\\s+", " ");
+		append(FAILED, stage, projectKey, cause.getClass().getSimpleName() + ": " + message);
+	}
+
+	/**
+	 * @param responseCache where the executor stores the page bodies, or
+	 *                      {@code null} if it has no cache: pages can then not be
+	 *                      restored, and only finished projects are skipped.
+	 * @return a checkpoint that journals the pages of {@code stage} and restores
+	 *         the journaled ones from {@code responseCache}.
+	 */
+	public PageCheckpoint checkpointFor(String stage, ResponseCache responseCache) {
+		if (responseCache == null) {
+			String stagePrefix = projectId(stage, "");
+			long journaled = journaledPages.stream().filter(id -> id.startsWith(stagePrefix))
+					.count();
+			if (journaled > 0) {
+				System.out.println("Resuming " + stage + " without a response cache: its "
+						+ journaled + " journaled pages will be requested again.");
+			}
+			return PageCheckpoint.NONE;
+		}
+		return new PageCheckpoint() {
+
+			@Override
+			public Optional<IssuesPage> restore(String projectKey, String pageUrl)
+					throws IOException {
+				if (!journaledPages.contains(pageId(stage, projectKey, pageUrl))) {
+					return Optional.empty();
+				}
+				Optional<Path> cached = responseCache.lookupAnyAge(pageUrl);
+				if (!cached.isPresent()) {
+					System.out.println("Journaled page not in the response cache, requesting it "
+							+ "again: " + pageUrl);
+					return Optional.empty();
+				}
+				List<Issue> issues = new ArrayList<>();
+				try (Reader body = Files.newBufferedReader(cached.get(), StandardCharsets.UTF_8)) {
+					long total = responseParser.parse(body, issues::add);
+					return Optional.of(new IssuesPage(total, issues));
+				}
+			}
+
+			@Override
+			public void save(String projectKey, String pageUrl) throws IOException {
+				append(PAGE, stage, projectKey, pageNumber(pageUrl), pageUrl);
+				journaledPages.add(pageId(stage, projectKey, pageUrl));
+			}
+		};
+	}
+
+	private static String pageNumber(String pageUrl) {
+		HttpUrl url = HttpUrl.parse(pageUrl);
+		if (url == null || url.queryParameter("p") == null) {
+			return "1";
+		}
+		return url.queryParameter("p");
+	}
+
+	private synchronized void append(String... fields) throws IOException {
+		writer.write(String.join(SEPARATOR, fields));
+		writer.newLine();
+		writer.flush();
+	}
+
+	private static String projectId(String stage, String projectKey) {
+		return stage + SEPARATOR + projectKey;
+	}
+
+	private static String pageId(String stage, String projectKey, String pageUrl) {
+		return projectId(stage, projectKey) + SEPARATOR + pageUrl;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		writer.close();
+	}
+
+}
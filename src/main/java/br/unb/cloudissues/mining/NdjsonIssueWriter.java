@@ -0,0 +1,55 @@
+package br.unb.cloudissues.mining;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.google.gson.Gson;
+
+import br.unb.cloudissues.http.IssueSink;
+import br.unb.cloudissues.model.Issue;
+
+/**
+ * Writes issues as newline-delimited JSON, one compact {@link Issue} per line,
+ * flushing after every page. A file cut short by a killed run still holds every
+ * page written before it, each line being a complete issue.
+ */
+public class NdjsonIssueWriter implements IssueSink, Closeable {
+
+	private final Gson gson = new Gson();
+
+	private final BufferedWriter writer;
+
+	private long written;
+
+	/**
+	 * Truncates {@code path} if it exists. Needs the directory to exist.
+	 */
+	public NdjsonIssueWriter(Path path) throws IOException {
+		writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public synchronized void accept(List<Issue> page) throws IOException {
+		for (Issue issue : page) {
+			gson.toJson(issue, Issue.class, writer);
+			writer.newLine();
+		}
+		writer.flush();
+		written += page.size();
+	}
+
+	public synchronized long getWritten() {
+		return written;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		writer.close();
+	}
+
+}
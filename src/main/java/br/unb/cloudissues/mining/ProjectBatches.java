@@ -0,0 +1,56 @@
+package br.unb.cloudissues.mining;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import br.unb.cloudissues.model.Project;
+
+/**
+ * Groups small projects so their issues can be requested with a single query.
+ * Project totals come from an earlier count, e.g. the facets of
+ * {@link br.unb.cloudissues.http.ViolationsRetriever#retrieveFacets(Project)};
+ * projects with an unknown total are never batched.
+ */
+public class ProjectBatches {
+
+	private ProjectBatches() {
+
+	}
+
+	/**
+	 * Packs projects with at most {@code smallProjectMaxIssues} issues, in order,
+	 * into batches of at most {@code maxIssuesPerBatch} issues and
+	 * {@code maxProjectsPerBatch} projects. Every other project is a batch of its
+	 * own.
+	 */
+	public static List<List<Project>> plan(List<Project> projects,
+			Map<String, Long> totalsByProjectKey, long smallProjectMaxIssues,
+			long maxIssuesPerBatch, int maxProjectsPerBatch) {
+		List<List<Project>> batches = new ArrayList<>();
+		List<Project> current = new ArrayList<>();
+		long currentIssues = 0;
+
+		for (Project project : projects) {
+			Long total = totalsByProjectKey.get(project.getProjectKey());
+			if (total == null || total > smallProjectMaxIssues) {
+				batches.add(Collections.singletonList(project));
+				continue;
+			}
+			if (!current.isEmpty() && (currentIssues + total > maxIssuesPerBatch
+					|| current.size() == maxProjectsPerBatch)) {
+				batches.add(current);
+				current = new ArrayList<>();
+				currentIssues = 0;
+			}
+			current.add(project);
+			currentIssues += total;
+		}
+		if (!current.isEmpty()) {
+			batches.add(current);
+		}
+		return batches;
+	}
+
+}
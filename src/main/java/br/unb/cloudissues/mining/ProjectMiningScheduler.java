@@ -0,0 +1,136 @@
+package br.unb.cloudissues.mining;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import br.unb.cloudissues.model.Project;
+
+/**
+ * Mines up to {@code concurrentProjects} projects at the same time. The request
+ * budget is not enforced here: tasks are expected to share a
+ * {@link br.unb.cloudissues.http.RateLimiter}, so throughput follows what the
+ * server allows instead of fixed pauses between projects.
+ */
+public class ProjectMiningScheduler {
+
+	@FunctionalInterface
+	public interface ProjectTask {
+		void mine(Project project) throws IOException, InterruptedException;
+	}
+
+	/**
+	 * Mines several projects together, e.g. with a single query.
+	 */
+	@FunctionalInterface
+	public interface BatchTask {
+		void mine(List<Project> batch) throws IOException, InterruptedException;
+	}
+
+	private final int concurrentProjects;
+
+	public ProjectMiningScheduler(int concurrentProjects) {
+		if (concurrentProjects < 1) {
+			throw new IllegalArgumentException("concurrentProjects must be at least 1");
+		}
+		this.concurrentProjects = concurrentProjects;
+	}
+
+	/**
+	 * Runs {@code task} for every project and waits for all of them to finish.
+	 * 
+	 * @return the projects whose task failed, empty if all succeeded.
+	 * @throws InterruptedException if interrupted while waiting. Running tasks are
+	 *                              interrupted too.
+	 */
+	public List<Project> run(List<Project> projects, ProjectTask task)
+			throws InterruptedException {
+		List<List<Project>> batches = projects.stream().map(Collections::singletonList)
+				.collect(Collectors.toList());
+		return runBatches(batches, batch -> task.mine(batch.get(0)));
+	}
+
+	/**
+	 * Same as {@link #run(List, ProjectTask)}, with up to
+	 * {@code concurrentProjects} batches at the same time. When a batch fails, all
+	 * of its projects are reported as failed.
+	 */
+	public List<Project> runBatches(List<List<Project>> batches, BatchTask task)
+			throws InterruptedException {
+		if (batches.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		ExecutorService executor = Executors
+				.newFixedThreadPool(Math.min(concurrentProjects, batches.size()));
+		try {
+			CompletionService<Outcome> completionService = new ExecutorCompletionService<>(
+					executor);
+			for (List<Project> batch : batches) {
+				completionService.submit(() -> mine(batch, task));
+			}
+			return waitForAll(batches.size(), completionService);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private Outcome mine(List<Project> batch, BatchTask task) throws InterruptedException {
+		try {
+			task.mine(batch);
+			return new Outcome(batch, true);
+		} catch (IOException | RuntimeException e) {
+			System.out.println("\nfailed to mine " + keysOf(batch));
+			e.printStackTrace();
+			return new Outcome(batch, false);
+		}
+	}
+
+	private static String keysOf(List<Project> batch) {
+		return batch.stream().map(Project::getProjectKey).collect(Collectors.joining(", "));
+	}
+
+	private List<Project> waitForAll(int total, CompletionService<Outcome> completionService)
+			throws InterruptedException {
+		List<Project> failed = new ArrayList<>();
+		for (int finished = 1; finished <= total; finished++) {
+			Outcome outcome = waitForNext(completionService);
+			if (!outcome.succeeded) {
+				failed.addAll(outcome.batch);
+			}
+			System.out.println("\nfinished " + keysOf(outcome.batch) + " (" + finished
+					+ "/" + total + ")");
+		}
+		return failed;
+	}
+
+	private Outcome waitForNext(CompletionService<Outcome> completionService)
+			throws InterruptedException {
+		try {
+			return completionService.take().get();
+		} catch (ExecutionException e) {
+			// mine() only lets InterruptedException escape
+			throw (InterruptedException) new InterruptedException().initCause(e.getCause());
+		}
+	}
+
+	private static class Outcome {
+
+		private final List<Project> batch;
+
+		private final boolean succeeded;
+
+		Outcome(List<Project> batch, boolean succeeded) {
+			this.batch = batch;
+			this.succeeded = succeeded;
+		}
+	}
+
+}
@@ -0,0 +1,85 @@
+package br.unb.cloudissues.mining;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import br.unb.cloudissues.model.Issue;
+import br.unb.cloudissues.util.Utils;
+
+/**
+ * Highest {@link Issue#getUpdateDate()} mined so far for each project, kept as
+ * a JSON object (project key to update date) in a single file.
+ */
+public class UpdateDateWatermarks {
+
+	private final Path path;
+
+	private final Map<String, String> updateDateByProjectKey = new ConcurrentHashMap<>();
+
+	private UpdateDateWatermarks(Path path) {
+		this.path = path;
+	}
+
+	/**
+	 * @return the watermarks stored at {@code path}, empty if the file does not
+	 *         exist yet.
+	 */
+	public static UpdateDateWatermarks load(Path path) throws IOException {
+		UpdateDateWatermarks watermarks = new UpdateDateWatermarks(path);
+		if (Files.exists(path)) {
+			Type type = new TypeToken<Map<String, String>>() {
+			}.getType();
+			Map<String, String> stored = new Gson().fromJson(Utils.readAllLines(path.toString()),
+					type);
+			if (stored != null) {
+				watermarks.updateDateByProjectKey.putAll(stored);
+			}
+		}
+		return watermarks;
+	}
+
+	public Optional<String> get(String projectKey) {
+		return Optional.ofNullable(updateDateByProjectKey.get(projectKey));
+	}
+
+	/**
+	 * Moves the watermark of {@code projectKey} to the most recent update date in
+	 * {@code issues}, if it is newer than the current one.
+	 */
+	public void advance(String projectKey, Collection<Issue> issues) {
+		latestUpdateDate(issues).ifPresent(latest -> updateDateByProjectKey.merge(projectKey,
+				latest, (current, candidate) -> isAfter(candidate, current) ? candidate : current));
+	}
+
+	/**
+	 * @return the most recent {@link Issue#getUpdateDate()} of {@code issues}.
+	 */
+	public static Optional<String> latestUpdateDate(Collection<Issue> issues) {
+		return issues.stream().map(Issue::getUpdateDate).filter(date -> date != null)
+				.reduce((a, b) -> isAfter(b, a) ? b : a);
+	}
+
+	private static boolean isAfter(String date, String other) {
+		return parseDate(date).isAfter(parseDate(other));
+	}
+
+	private static OffsetDateTime parseDate(String date) {
+		return OffsetDateTime.parse(date, Utils.formatterForOffsetDateWithoutCollon());
+	}
+
+	public synchronized void save() throws IOException {
+		Files.createDirectories(path.toAbsolutePath().getParent());
+		Utils.writeObjToFileAsJSON(updateDateByProjectKey, path.toString());
+	}
+
+}
@@ -0,0 +1,100 @@
+package br.unb.cloudissues.mining;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import br.unb.cloudissues.http.IssueSink;
+import br.unb.cloudissues.model.Issue;
+import br.unb.cloudissues.model.Project;
+import br.unb.cloudissues.model.Violations;
+
+/**
+ * Splits the issues of a project, retrieved once with each of the
+ * {@link #queries()} of several filters, into one {@link Violations} per output
+ * directory. An issue goes to every directory whose filter matches it; issues
+ * matching none are dropped. The total of each directory is its number of
+ * issues, not a total reported by SonarQube.
+ */
+public class ViolationsRouter {
+
+	private final Map<String, IssueFilter> filtersByDirectory = new LinkedHashMap<>();
+
+	public ViolationsRouter route(String directory, IssueFilter filter) {
+		filtersByDirectory.put(directory, filter);
+		return this;
+	}
+
+	/**
+	 * @return the disjoint filters to request with, together covering every
+	 *         routed directory.
+	 * @see IssueFilter#queries(Collection)
+	 */
+	public List<IssueFilter> queries() {
+		return IssueFilter.queries(filtersByDirectory.values());
+	}
+
+	/**
+	 * @return the directories in the order they were routed, each with its
+	 *         share of {@code violations}, possibly with no issues.
+	 */
+	public Map<String, Violations> split(Violations violations) {
+		return split(Collections.singletonList(violations));
+	}
+
+	/**
+	 * Same as {@link #split(Violations)} for the violations of a single project
+	 * retrieved with each of the {@link #queries()}.
+	 */
+	public Map<String, Violations> split(List<Violations> violationsOfEachQuery) {
+		Map<String, List<Issue>> issuesByDirectory = new LinkedHashMap<>();
+		filtersByDirectory.keySet()
+				.forEach(directory -> issuesByDirectory.put(directory, new ArrayList<>()));
+
+		List<Issue> issues = new ArrayList<>();
+		violationsOfEachQuery.forEach(violations -> issues.addAll(violations.getIssues()));
+		for (Issue issue : issues) {
+			filtersByDirectory.forEach((directory, filter) -> {
+				if (filter.matches(issue)) {
+					issuesByDirectory.get(directory).add(issue);
+				}
+			});
+		}
+
+		Project project = violationsOfEachQuery.get(0).getProject();
+		Map<String, Violations> violationsByDirectory = new LinkedHashMap<>();
+		issuesByDirectory.forEach((directory, routed) -> violationsByDirectory.put(directory,
+				new Violations(project, (long) routed.size(), routed)));
+		return violationsByDirectory;
+	}
+
+	/**
+	 * @return a sink splitting each page it receives the same way as
+	 *         {@link #split(Violations)}, into the sink of each directory.
+	 */
+	public IssueSink sinkFor(Map<String, ? extends IssueSink> sinksByDirectory) {
+		return page -> {
+			Map<String, List<Issue>> issuesByDirectory = new HashMap<>();
+			for (Issue issue : page) {
+				filtersByDirectory.forEach((directory, filter) -> {
+					if (filter.matches(issue)) {
+						issuesByDirectory.computeIfAbsent(directory, d -> new ArrayList<>())
+								.add(issue);
+					}
+				});
+			}
+			for (Map.Entry<String, List<Issue>> routed : issuesByDirectory.entrySet()) {
+				sinksByDirectory.get(routed.getKey()).accept(routed.getValue());
+			}
+		};
+	}
+
+	public Map<String, IssueFilter> getFiltersByDirectory() {
+		return filtersByDirectory;
+	}
+
+}
@@ -0,0 +1,359 @@
+package br.unb.cloudissues.model;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import br.unb.cloudissues.util.SonarDates;
+import br.unb.cloudissues.util.StringPool;
+
+/**
+ * Read-only {@link Issue} for analyses that hold the whole corpus in memory.
+ * Repeated strings are shared through a {@link StringPool}, dates are parsed
+ * once into epoch seconds and the text range is kept as ints. Converts back to
+ * an equal {@link Issue} with {@link #toIssue()}.
+ */
+public final class CompactIssue {
+
+	/**
+	 * Value of a missing date, in epoch seconds.
+	 */
+	public static final long NO_DATE = SonarDates.NO_DATE;
+
+	/**
+	 * Value of a missing text range line or offset.
+	 */
+	public static final int NO_POSITION = -1;
+
+	private static final int SECONDS_PER_QUARTER_HOUR = 900;
+
+	private static final DateTimeFormatter SONAR_DATE_FORMATTER = DateTimeFormatter
+			.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ");
+
+	private final String key;
+	private final String rule;
+	private final String component;
+	private final String resolution;
+	private final String status;
+	private final String effort;
+	private final String severity;
+	private final String type;
+	private final String project;
+	private final String subproject;
+
+	private final long creationDate;
+	private final long updateDate;
+	private final long closeDate;
+
+	// offsets of creation, update and close dates, in quarter hours, one byte each
+	private final int packedOffsets;
+
+	private final int startLine;
+	private final int endLine;
+	private final int startOffset;
+	private final int endOffset;
+
+	private CompactIssue(Builder builder) {
+		key = builder.key;
+		rule = builder.rule;
+		component = builder.component;
+		resolution = builder.resolution;
+		status = builder.status;
+		effort = builder.effort;
+		severity = builder.severity;
+		type = builder.type;
+		project = builder.project;
+		subproject = builder.subproject;
+		creationDate = builder.creationDate;
+		updateDate = builder.updateDate;
+		closeDate = builder.closeDate;
+		packedOffsets = (builder.creationOffsetSeconds / SECONDS_PER_QUARTER_HOUR & 0xFF)
+				| (builder.updateOffsetSeconds / SECONDS_PER_QUARTER_HOUR & 0xFF) << 8
+				| (builder.closeOffsetSeconds / SECONDS_PER_QUARTER_HOUR & 0xFF) << 16;
+		startLine = builder.startLine;
+		endLine = builder.endLine;
+		startOffset = builder.startOffset;
+		endOffset = builder.endOffset;
+	}
+
+	/**
+	 * Builder for loaders that do not go through {@link Issue}. Strings are
+	 * expected to be pooled already.
+	 */
+	public static class Builder {
+
+		private String key;
+		private String rule;
+		private String component;
+		private String resolution;
+		private String status;
+		private String effort;
+		private String severity;
+		private String type;
+		private String project;
+		private String subproject;
+		private long creationDate = NO_DATE;
+		private long updateDate = NO_DATE;
+		private long closeDate = NO_DATE;
+		private int creationOffsetSeconds;
+		private int updateOffsetSeconds;
+		private int closeOffsetSeconds;
+		private int startLine = NO_POSITION;
+		private int endLine = NO_POSITION;
+		private int startOffset = NO_POSITION;
+		private int endOffset = NO_POSITION;
+
+		public Builder key(String key) {
+			this.key = key;
+			return this;
+		}
+
+		public Builder rule(String rule) {
+			this.rule = rule;
+			return this;
+		}
+
+		public Builder component(String component) {
+			this.component = component;
+			return this;
+		}
+
+		public Builder resolution(String resolution) {
+			this.resolution = resolution;
+			return this;
+		}
+
+		public Builder status(String status) {
+			this.status = status;
+			return this;
+		}
+
+		public Builder effort(String effort) {
+			this.effort = effort;
+			return this;
+		}
+
+		public Builder severity(String severity) {
+			this.severity = severity;
+			return this;
+		}
+
+		public Builder type(String type) {
+			this.type = type;
+			return this;
+		}
+
+		public Builder project(String project) {
+			this.project = project;
+			return this;
+		}
+
+		public Builder subproject(String subproject) {
+			this.subproject = subproject;
+			return this;
+		}
+
+		public Builder creationDate(long epochSecond, int offsetSeconds) {
+			this.creationDate = epochSecond;
+			this.creationOffsetSeconds = offsetSeconds;
+			return this;
+		}
+
+		public Builder updateDate(long epochSecond, int offsetSeconds) {
+			this.updateDate = epochSecond;
+			this.updateOffsetSeconds = offsetSeconds;
+			return this;
+		}
+
+		public Builder closeDate(long epochSecond, int offsetSeconds) {
+			this.closeDate = epochSecond;
+			this.closeOffsetSeconds = offsetSeconds;
+			return this;
+		}
+
+		public Builder textRange(int startLine, int endLine, int startOffset, int endOffset) {
+			this.startLine = startLine;
+			this.endLine = endLine;
+			this.startOffset = startOffset;
+			this.endOffset = endOffset;
+			return this;
+		}
+
+		public CompactIssue build() {
+			return new CompactIssue(this);
+		}
+	}
+
+	/**
+	 * @param stringPool shares every repeated value; issue keys are unique and
+	 *                   kept as they are.
+	 */
+	public static CompactIssue of(Issue issue, StringPool stringPool) {
+		Builder builder = new Builder().key(issue.getKey()) //
+				.rule(stringPool.intern(issue.getRule())) //
+				.component(stringPool.intern(issue.getComponent())) //
+				.resolution(stringPool.intern(issue.getResolution())) //
+				.status(stringPool.intern(issue.getStatus())) //
+				.effort(stringPool.intern(issue.getEffort())) //
+				.severity(stringPool.intern(issue.getSeverity())) //
+				.type(stringPool.intern(issue.getType())) //
+				.project(stringPool.intern(issue.getProject())) //
+				.subproject(stringPool.intern(issue.getSubproject())) //
+				.creationDate(SonarDates.toEpochSecond(issue.getCreationDate()),
+						SonarDates.offsetSeconds(issue.getCreationDate())) //
+				.updateDate(SonarDates.toEpochSecond(issue.getUpdateDate()),
+						SonarDates.offsetSeconds(issue.getUpdateDate())) //
+				.closeDate(SonarDates.toEpochSecond(issue.getCloseDate()),
+						SonarDates.offsetSeconds(issue.getCloseDate()));
+
+		TextRange textRange = issue.getTextRange();
+		if (textRange != null) {
+			builder.textRange(position(textRange.getStartLine()), position(textRange.getEndLine()),
+					position(textRange.getStartOffset()), position(textRange.getEndOffset()));
+		}
+		return builder.build();
+	}
+
+	private static int position(Long value) {
+		return value == null ? NO_POSITION : value.intValue();
+	}
+
+	public Issue toIssue() {
+		Issue issue = new Issue();
+		issue.setKey(key);
+		issue.setRule(rule);
+		issue.setComponent(component);
+		issue.setResolution(resolution);
+		issue.setStatus(status);
+		issue.setEffort(effort);
+		issue.setSeverity(severity);
+		issue.setType(type);
+		issue.setProject(project);
+		issue.setSubproject(subproject);
+		issue.setCreationDate(formatDate(creationDate, 0));
+		issue.setUpdateDate(formatDate(updateDate, 8));
+		issue.setCloseDate(formatDate(closeDate, 16));
+		if (hasTextRange()) {
+			TextRange textRange = new TextRange();
+			textRange.setStartLine(boxed(startLine));
+			textRange.setEndLine(boxed(endLine));
+			textRange.setStartOffset(boxed(startOffset));
+			textRange.setEndOffset(boxed(endOffset));
+			issue.setTextRange(textRange);
+		}
+		return issue;
+	}
+
+	private String formatDate(long epochSecond, int offsetShift) {
+		if (epochSecond == NO_DATE) {
+			return null;
+		}
+		int quarterHours = (byte) (packedOffsets >> offsetShift);
+		ZoneOffset offset = ZoneOffset.ofTotalSeconds(quarterHours * SECONDS_PER_QUARTER_HOUR);
+		return SONAR_DATE_FORMATTER.format(Instant.ofEpochSecond(epochSecond).atOffset(offset));
+	}
+
+	private static Long boxed(int position) {
+		return position == NO_POSITION ? null : (long) position;
+	}
+
+	public boolean hasTextRange() {
+		return startLine != NO_POSITION || endLine != NO_POSITION || startOffset != NO_POSITION
+				|| endOffset != NO_POSITION;
+	}
+
+	/**
+	 * @return same as {@link Issue#getTimeToFixAsSeconds()}: -1 when the issue has
+	 *         no creation or close date.
+	 */
+	public long getTimeToFixAsSeconds() {
+		if (creationDate == NO_DATE || closeDate == NO_DATE) {
+			return -1L;
+		}
+		return closeDate - creationDate;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public String getRule() {
+		return rule;
+	}
+
+	public String getComponent() {
+		return component;
+	}
+
+	public String getResolution() {
+		return resolution;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public String getEffort() {
+		return effort;
+	}
+
+	public String getSeverity() {
+		return severity;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public String getProject() {
+		return project;
+	}
+
+	public String getSubproject() {
+		return subproject;
+	}
+
+	/**
+	 * @return epoch seconds, or {@link #NO_DATE}.
+	 */
+	public long getCreationDate() {
+		return creationDate;
+	}
+
+	/**
+	 * @return epoch seconds, or {@link #NO_DATE}.
+	 */
+	public long getUpdateDate() {
+		return updateDate;
+	}
+
+	/**
+	 * @return epoch seconds, or {@link #NO_DATE}.
+	 */
+	public long getCloseDate() {
+		return closeDate;
+	}
+
+	public int getStartLine() {
+		return startLine;
+	}
+
+	public int getEndLine() {
+		return endLine;
+	}
+
+	public int getStartOffset() {
+		return startOffset;
+	}
+
+	public int getEndOffset() {
+		return endOffset;
+	}
+
+	@Override
+	public String toString() {
+		return "CompactIssue [key=" + key + ", rule=" + rule + ", component=" + component
+				+ ", status=" + status + ", resolution=" + resolution + "]";
+	}
+
+}
@@ -1,9 +1,9 @@
 package br.unb.cloudissues.model;
 
 import java.time.Duration;
-import java.time.OffsetDateTime;
+import java.util.Objects;
 
-import br.unb.cloudissues.util.Utils;
+import br.unb.cloudissues.util.SonarDates;
 
 public class Issue {
 
@@ -128,21 +128,20 @@ public class Issue {
 		this.closeDate = closeDate;
 	}
 
+	/**
+	 * @throws NullPointerException if the issue has no creation or close date.
+	 */
 	public Duration getTimeToFix() {
-		return Duration.between(parseDate(getCreationDate()), parseDate(getCloseDate()));
-	}
-
-	// Parsing dates without ":" in the offset.
-	private OffsetDateTime parseDate(String date) {
-		return OffsetDateTime.parse(date, Utils.formatterForOffsetDateWithoutCollon());
+		Objects.requireNonNull(getCreationDate(), "creationDate");
+		Objects.requireNonNull(getCloseDate(), "closeDate");
+		return Duration.ofSeconds(SonarDates.secondsBetween(getCreationDate(), getCloseDate()));
 	}
 
+	/**
+	 * @return -1 if the issue has no creation or close date (e.g. it is open).
+	 */
 	public Long getTimeToFixAsSeconds() {
-		try {
-			return getTimeToFix().getSeconds();
-		} catch (NullPointerException e) {
-			return -1L;
-		}
+		return SonarDates.secondsBetween(getCreationDate(), getCloseDate());
 	}
 
 	@Override
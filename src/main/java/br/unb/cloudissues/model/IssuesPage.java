@@ -0,0 +1,35 @@
+package br.unb.cloudissues.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of an issues/search response: its issues and the total of issues
+ * matching the query.
+ */
+public class IssuesPage {
+
+	private final long total;
+
+	private final List<Issue> issues;
+
+	public IssuesPage(long total, List<Issue> issues) {
+		super();
+		this.total = total;
+		this.issues = new ArrayList<>(issues);
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public List<Issue> getIssues() {
+		return issues;
+	}
+
+	@Override
+	public String toString() {
+		return "IssuesPage [total=" + total + ", issues=" + issues + "]";
+	}
+
+}
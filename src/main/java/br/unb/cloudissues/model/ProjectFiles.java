@@ -30,6 +30,9 @@ public class ProjectFiles {
 	}
 
 	public Set<ProjectFile> getFiles() {
+		if (files == null) {
+			return Collections.emptySet();
+		}
 		return Collections.unmodifiableSet(files);
 	}
 
@@ -1,10 +1,13 @@
 package br.unb.cloudissues.model;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.UnaryOperator;
 
+import br.unb.cloudissues.util.SonarDates;
+
 public class Violations {
 
 	public static final UnaryOperator<String> removeProjectKeyFromFilePath = path -> {
@@ -29,8 +32,33 @@ public class Violations {
 		this(project, Long.parseLong(total), issues);
 	}
 
+	/**
+	 * @return the time to fix of every issue, in seconds and in the order of
+	 *         {@link #getIssues()}; -1 for issues without a creation or close date.
+	 */
+	public long[] getTimesToFixAsSeconds() {
+		long[] timesToFix = new long[issues.size()];
+		for (int i = 0; i < timesToFix.length; i++) {
+			Issue issue = issues.get(i);
+			timesToFix[i] = SonarDates.secondsBetween(issue.getCreationDate(),
+					issue.getCloseDate());
+		}
+		return timesToFix;
+	}
+
+	/**
+	 * @return the paths, without the project key (see
+	 *         {@link #removeProjectKeyFromFilePath}), of the files with at least one
+	 *         issue, in the order they first appear.
+	 */
 	public Set<String> getFilesPaths() {
-		throw new IllegalStateException("Not implemented in this version");
+		Set<String> paths = new LinkedHashSet<>();
+		for (Issue issue : issues) {
+			if (issue.getComponent() != null) {
+				paths.add(removeProjectKeyFromFilePath.apply(issue.getComponent()));
+			}
+		}
+		return paths;
 	}
 
 	public Project getProject() {
@@ -0,0 +1,57 @@
+package br.unb.cloudissues.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Issue counts of a project, as returned by the facets of issues/search,
+ * without the issues themselves. Counts are by facet (e.g. {@code rules},
+ * {@code severities}) and then by facet value.
+ */
+public class ViolationsFacets {
+
+	private Project project;
+
+	private Long total;
+
+	private Map<String, Map<String, Long>> countsByFacet;
+
+	public ViolationsFacets(Project project, Long total,
+			Map<String, Map<String, Long>> countsByFacet) {
+		super();
+		this.project = project;
+		this.total = total;
+		this.countsByFacet = new LinkedHashMap<>(countsByFacet);
+	}
+
+	public Project getProject() {
+		return project;
+	}
+
+	public Long getTotal() {
+		return total;
+	}
+
+	public Map<String, Map<String, Long>> getCountsByFacet() {
+		return countsByFacet;
+	}
+
+	/**
+	 * @return the counts by value of {@code facet}, empty if it was not requested.
+	 */
+	public Map<String, Long> getCounts(String facet) {
+		return countsByFacet.getOrDefault(facet, Collections.emptyMap());
+	}
+
+	public String getProjectKey() {
+		return project.getProjectKey();
+	}
+
+	@Override
+	public String toString() {
+		return "ViolationsFacets [project=" + project + ", total=" + total + ", countsByFacet="
+				+ countsByFacet + "]";
+	}
+
+}
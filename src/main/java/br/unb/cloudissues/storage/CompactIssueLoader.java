@@ -0,0 +1,77 @@
+package br.unb.cloudissues.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import br.unb.cloudissues.model.CompactIssue;
+import br.unb.cloudissues.model.Issue;
+import br.unb.cloudissues.util.StringPool;
+
+/**
+ * Loads {@link CompactIssue}s from the files the miner writes, without ever
+ * holding the {@link Issue}s of a file: each one is converted as soon as it is
+ * read. Share one {@link StringPool} across files to share their values too.
+ */
+public class CompactIssueLoader {
+
+	private final ViolationsFileReader fileReader = new ViolationsFileReader();
+
+	private final StringPool stringPool;
+
+	public CompactIssueLoader(StringPool stringPool) {
+		this.stringPool = stringPool;
+	}
+
+	/**
+	 * Loads a file written by the miner (a JSON list of {@code Violations}) or by
+	 * {@link IssueStore}, depending on its extension.
+	 */
+	public List<CompactIssue> load(Path path) throws IOException {
+		if (path.getFileName().toString().endsWith(IssueStore.EXTENSION)) {
+			return loadIssueStore(path);
+		}
+		return loadJson(path);
+	}
+
+	/**
+	 * @return the issues of every {@code Violations} in the JSON list at
+	 *         {@code path}, or of the NDJSON file at {@code path}.
+	 */
+	public List<CompactIssue> loadJson(Path path) throws IOException {
+		List<CompactIssue> issues = new ArrayList<>();
+		fileReader.forEachIssue(path,
+				(projectKey, issue) -> issues.add(CompactIssue.of(issue, stringPool)));
+		return issues;
+	}
+
+	public List<CompactIssue> loadIssueStore(Path path) throws IOException {
+		IssueTable table = IssueStore.read(path);
+		List<CompactIssue> issues = new ArrayList<>(table.size());
+		IssueTable.Cursor cursor = table.cursor();
+		while (cursor.next()) {
+			issues.add(new CompactIssue.Builder().key(cursor.getKey()) //
+					.rule(stringPool.intern(cursor.getRule())) //
+					.component(stringPool.intern(cursor.getComponent())) //
+					.resolution(stringPool.intern(cursor.getResolution())) //
+					.status(stringPool.intern(cursor.getStatus())) //
+					.effort(stringPool.intern(cursor.get(IssueColumn.EFFORT))) //
+					.severity(stringPool.intern(cursor.getSeverity())) //
+					.type(stringPool.intern(cursor.getType())) //
+					.project(stringPool.intern(cursor.get(IssueColumn.PROJECT))) //
+					.subproject(stringPool.intern(cursor.get(IssueColumn.SUBPROJECT))) //
+					.creationDate(cursor.getEpochSecond(DateColumn.CREATION_DATE),
+							cursor.getOffsetSeconds(DateColumn.CREATION_DATE)) //
+					.updateDate(cursor.getEpochSecond(DateColumn.UPDATE_DATE),
+							cursor.getOffsetSeconds(DateColumn.UPDATE_DATE)) //
+					.closeDate(cursor.getEpochSecond(DateColumn.CLOSE_DATE),
+							cursor.getOffsetSeconds(DateColumn.CLOSE_DATE)) //
+					.textRange(cursor.getStartLine(), cursor.getEndLine(),
+							cursor.getStartOffset(), cursor.getEndOffset()) //
+					.build());
+		}
+		return issues;
+	}
+
+}
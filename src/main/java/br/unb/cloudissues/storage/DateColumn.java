@@ -0,0 +1,46 @@
+package br.unb.cloudissues.storage;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import br.unb.cloudissues.model.Issue;
+
+/**
+ * The date fields of {@link Issue}, each stored in an {@link IssueTable} as
+ * epoch seconds plus the offset it was written with.
+ */
+public enum DateColumn {
+
+	CREATION_DATE("creationDate", Issue::getCreationDate, Issue::setCreationDate), //
+	UPDATE_DATE("updateDate", Issue::getUpdateDate, Issue::setUpdateDate), //
+	CLOSE_DATE("closeDate", Issue::getCloseDate, Issue::setCloseDate);
+
+	private final String fieldName;
+
+	private final Function<Issue, String> getter;
+
+	private final BiConsumer<Issue, String> setter;
+
+	DateColumn(String fieldName, Function<Issue, String> getter,
+			BiConsumer<Issue, String> setter) {
+		this.fieldName = fieldName;
+		this.getter = getter;
+		this.setter = setter;
+	}
+
+	/**
+	 * @return the name of the field in the issues JSON.
+	 */
+	public String getFieldName() {
+		return fieldName;
+	}
+
+	String get(Issue issue) {
+		return getter.apply(issue);
+	}
+
+	void set(Issue issue, String value) {
+		setter.accept(issue, value);
+	}
+
+}
@@ -0,0 +1,65 @@
+package br.unb.cloudissues.storage;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import br.unb.cloudissues.model.Issue;
+
+/**
+ * The string fields of {@link Issue}, each stored as a column of an
+ * {@link IssueTable}: dictionary-encoded when few values repeat over many
+ * issues, as plain strings when nearly every issue has its own value.
+ */
+public enum IssueColumn {
+
+	KEY("key", Issue::getKey, Issue::setKey, false), //
+	RULE("rule", Issue::getRule, Issue::setRule, true), //
+	COMPONENT("component", Issue::getComponent, Issue::setComponent, false), //
+	RESOLUTION("resolution", Issue::getResolution, Issue::setResolution, true), //
+	STATUS("status", Issue::getStatus, Issue::setStatus, true), //
+	EFFORT("effort", Issue::getEffort, Issue::setEffort, true), //
+	SEVERITY("severity", Issue::getSeverity, Issue::setSeverity, true), //
+	TYPE("type", Issue::getType, Issue::setType, true), //
+	PROJECT("project", Issue::getProject, Issue::setProject, true), //
+	SUBPROJECT("subproject", Issue::getSubproject, Issue::setSubproject, true);
+
+	private final String fieldName;
+
+	private final Function<Issue, String> getter;
+
+	private final BiConsumer<Issue, String> setter;
+
+	private final boolean dictionaryEncoded;
+
+	IssueColumn(String fieldName, Function<Issue, String> getter,
+			BiConsumer<Issue, String> setter, boolean dictionaryEncoded) {
+		this.fieldName = fieldName;
+		this.getter = getter;
+		this.setter = setter;
+		this.dictionaryEncoded = dictionaryEncoded;
+	}
+
+	/**
+	 * @return whether the column is stored as codes into a dictionary, instead
+	 *         of one string per issue.
+	 */
+	public boolean isDictionaryEncoded() {
+		return dictionaryEncoded;
+	}
+
+	/**
+	 * @return the name of the field in the issues JSON.
+	 */
+	public String getFieldName() {
+		return fieldName;
+	}
+
+	String get(Issue issue) {
+		return getter.apply(issue);
+	}
+
+	void set(Issue issue, String value) {
+		setter.accept(issue, value);
+	}
+
+}
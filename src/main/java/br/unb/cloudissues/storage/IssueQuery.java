@@ -0,0 +1,182 @@
+package br.unb.cloudissues.storage;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import br.unb.cloudissues.model.Issue;
+import br.unb.cloudissues.model.Resolutions;
+import br.unb.cloudissues.model.RuleSeverities;
+import br.unb.cloudissues.model.RuleTypes;
+import br.unb.cloudissues.model.Statuses;
+import br.unb.cloudissues.util.SonarDates;
+
+/**
+ * Conjunction of predicates on the fields of an issue: each constrained field
+ * must have one of the given values, each constrained date must be within
+ * {@code [from, to)}. Predicates can be evaluated field by field while an issue
+ * is parsed (see {@link IssueQueryEngine}), so a mismatch on an early field
+ * skips the rest of the issue. Immutable.
+ */
+public class IssueQuery {
+
+	private final Map<IssueColumn, Set<String>> valuesByColumn;
+
+	private final Map<DateColumn, long[]> rangesByDate;
+
+	private IssueQuery(Builder builder) {
+		valuesByColumn = new EnumMap<>(builder.valuesByColumn);
+		rangesByDate = new EnumMap<>(builder.rangesByDate);
+	}
+
+	/**
+	 * @return whether {@code value} (possibly {@code null}) satisfies the
+	 *         predicate on {@code column}, if any.
+	 */
+	public boolean accepts(IssueColumn column, String value) {
+		Set<String> values = valuesByColumn.get(column);
+		return values == null || (value != null && values.contains(value));
+	}
+
+	/**
+	 * @return whether {@code date} satisfies the range on {@code dateColumn}, if
+	 *         any. Issues without the date never do.
+	 */
+	public boolean accepts(DateColumn dateColumn, String date) {
+		long[] range = rangesByDate.get(dateColumn);
+		return range == null || (date != null && inRange(range, SonarDates.toEpochSecond(date)));
+	}
+
+	private boolean accepts(DateColumn dateColumn, long epochSecond) {
+		long[] range = rangesByDate.get(dateColumn);
+		return range == null || (epochSecond != SonarDates.NO_DATE && inRange(range, epochSecond));
+	}
+
+	private static boolean inRange(long[] range, long epochSecond) {
+		return epochSecond >= range[0] && epochSecond < range[1];
+	}
+
+	public boolean isConstrained(IssueColumn column) {
+		return valuesByColumn.containsKey(column);
+	}
+
+	public boolean isConstrained(DateColumn dateColumn) {
+		return rangesByDate.containsKey(dateColumn);
+	}
+
+	public boolean matches(Issue issue) {
+		for (IssueColumn column : valuesByColumn.keySet()) {
+			if (!accepts(column, column.get(issue))) {
+				return false;
+			}
+		}
+		for (DateColumn dateColumn : rangesByDate.keySet()) {
+			if (!accepts(dateColumn, dateColumn.get(issue))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Same as {@link #matches(Issue)} on the current row of {@code cursor},
+	 * without building its issue.
+	 */
+	public boolean matches(IssueTable.Cursor cursor) {
+		for (IssueColumn column : valuesByColumn.keySet()) {
+			if (!accepts(column, cursor.get(column))) {
+				return false;
+			}
+		}
+		for (DateColumn dateColumn : rangesByDate.keySet()) {
+			if (!accepts(dateColumn, cursor.getEpochSecond(dateColumn))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "IssueQuery [valuesByColumn=" + valuesByColumn + ", dates="
+				+ rangesByDate.keySet() + "]";
+	}
+
+	public static class Builder {
+
+		private final Map<IssueColumn, Set<String>> valuesByColumn = new EnumMap<>(
+				IssueColumn.class);
+
+		private final Map<DateColumn, long[]> rangesByDate = new EnumMap<>(DateColumn.class);
+
+		public Builder rules(String... rules) {
+			return values(IssueColumn.RULE, Arrays.asList(rules), Function.identity());
+		}
+
+		public Builder projects(String... projectKeys) {
+			return values(IssueColumn.PROJECT, Arrays.asList(projectKeys), Function.identity());
+		}
+
+		public Builder severities(RuleSeverities... severities) {
+			return values(IssueColumn.SEVERITY, Arrays.asList(severities), RuleSeverities::name);
+		}
+
+		public Builder types(RuleTypes... types) {
+			return values(IssueColumn.TYPE, Arrays.asList(types), RuleTypes::name);
+		}
+
+		public Builder statuses(Statuses... statuses) {
+			return values(IssueColumn.STATUS, Arrays.asList(statuses), Statuses::toString);
+		}
+
+		public Builder resolutions(Resolutions... resolutions) {
+			return values(IssueColumn.RESOLUTION, Arrays.asList(resolutions),
+					Resolutions::getValue);
+		}
+
+		/**
+		 * Constrains {@code column} to one of {@code values}, for columns without a
+		 * dedicated method.
+		 */
+		public <T> Builder values(IssueColumn column, Iterable<T> values,
+				Function<T, String> toValue) {
+			Set<String> accepted = new HashSet<>();
+			values.forEach(value -> accepted.add(toValue.apply(value)));
+			valuesByColumn.put(column, Collections.unmodifiableSet(accepted));
+			return this;
+		}
+
+		public Builder createdBetween(Instant from, Instant to) {
+			return between(DateColumn.CREATION_DATE, from, to);
+		}
+
+		public Builder updatedBetween(Instant from, Instant to) {
+			return between(DateColumn.UPDATE_DATE, from, to);
+		}
+
+		public Builder closedBetween(Instant from, Instant to) {
+			return between(DateColumn.CLOSE_DATE, from, to);
+		}
+
+		/**
+		 * Constrains {@code dateColumn} to {@code [from, to)}.
+		 */
+		public Builder between(DateColumn dateColumn, Instant from, Instant to) {
+			if (!from.isBefore(to)) {
+				throw new IllegalArgumentException("from must be before to");
+			}
+			rangesByDate.put(dateColumn, new long[] { from.getEpochSecond(), to.getEpochSecond() });
+			return this;
+		}
+
+		public IssueQuery build() {
+			return new IssueQuery(this);
+		}
+	}
+
+}
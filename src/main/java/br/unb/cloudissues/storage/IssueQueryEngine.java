@@ -0,0 +1,251 @@
+package br.unb.cloudissues.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import br.unb.cloudissues.model.Issue;
+import br.unb.cloudissues.model.TextRange;
+
+/**
+ * Runs an {@link IssueQuery} over the files the miner writes (JSON, NDJSON or
+ * {@link IssueStore} files), evaluating its predicates while parsing: the
+ * issues of a project that does not match are skipped as a whole, and an issue
+ * is skipped as soon as one of its fields does not match, without reading the
+ * rest of it. Only matching issues are ever built.
+ */
+public class IssueQueryEngine {
+
+	private static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+
+	// identity marker of the end of the results in the queue
+	private static final Issue END_OF_RESULTS = new Issue();
+
+	private static final Map<String, IssueColumn> COLUMNS_BY_FIELD = new HashMap<>();
+
+	private static final Map<String, DateColumn> DATE_COLUMNS_BY_FIELD = new HashMap<>();
+
+	static {
+		for (IssueColumn column : IssueColumn.values()) {
+			COLUMNS_BY_FIELD.put(column.getFieldName(), column);
+		}
+		for (DateColumn dateColumn : DateColumn.values()) {
+			DATE_COLUMNS_BY_FIELD.put(dateColumn.getFieldName(), dateColumn);
+		}
+	}
+
+	private final int concurrentFiles;
+
+	private final int queueCapacity;
+
+	private final ViolationsFileReader fileReader = new ViolationsFileReader();
+
+	private final TypeAdapter<TextRange> textRangeAdapter = new Gson()
+			.getAdapter(TextRange.class);
+
+	public IssueQueryEngine(int concurrentFiles, int queueCapacity) {
+		if (concurrentFiles < 1) {
+			throw new IllegalArgumentException("concurrentFiles must be at least 1");
+		}
+		if (queueCapacity < 1) {
+			throw new IllegalArgumentException("queueCapacity must be at least 1");
+		}
+		this.concurrentFiles = concurrentFiles;
+		this.queueCapacity = queueCapacity;
+	}
+
+	public IssueQueryEngine() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+	}
+
+	/**
+	 * Hands the issues of {@code file} matching {@code query} to
+	 * {@code consumer}, in file order.
+	 */
+	public void forEachMatch(IssueQuery query, Path file, Consumer<Issue> consumer)
+			throws IOException {
+		if (file.getFileName().toString().endsWith(IssueStore.EXTENSION)) {
+			IssueTable table = IssueStore.read(file);
+			IssueTable.Cursor cursor = table.cursor();
+			while (cursor.next()) {
+				if (query.matches(cursor)) {
+					consumer.accept(table.toIssue(cursor.getRow()));
+				}
+			}
+			return;
+		}
+		fileReader.forEachIssue(file,
+				projectKey -> query.accepts(IssueColumn.PROJECT, projectKey),
+				reader -> readIfAccepted(reader, query), (projectKey, issue) -> {
+					if (issue.getProject() == null) {
+						issue.setProject(projectKey);
+					}
+					if (query.matches(issue)) {
+						consumer.accept(issue);
+					}
+				});
+	}
+
+	/**
+	 * @return the issue, or {@code null} as soon as one of its fields fails
+	 *         {@code query}, the rest of the issue being skipped. Fields absent
+	 *         from the issue are checked by the caller.
+	 */
+	private Issue readIfAccepted(JsonReader reader, IssueQuery query) throws IOException {
+		Issue issue = new Issue();
+		boolean rejected = false;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (rejected || reader.peek() == JsonToken.NULL) {
+				reader.skipValue();
+				continue;
+			}
+			IssueColumn column = COLUMNS_BY_FIELD.get(name);
+			DateColumn dateColumn = DATE_COLUMNS_BY_FIELD.get(name);
+			if (column != null) {
+				String value = reader.nextString();
+				rejected = !query.accepts(column, value);
+				column.set(issue, value);
+			} else if (dateColumn != null) {
+				String date = reader.nextString();
+				rejected = !query.accepts(dateColumn, date);
+				dateColumn.set(issue, date);
+			} else if ("textRange".equals(name)) {
+				issue.setTextRange(textRangeAdapter.read(reader));
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return rejected ? null : issue;
+	}
+
+	/**
+	 * Runs {@code query} over {@code files}, up to {@code concurrentFiles} at the
+	 * same time. Matching issues are handed over through a bounded queue, so
+	 * readers wait when the caller is slower. Issues of a file are in file order,
+	 * files are interleaved. A file that cannot be read fails the stream with an
+	 * {@link UncheckedIOException}.
+	 * 
+	 * @return the matching issues; close the stream (e.g. try-with-resources) to
+	 *         stop the readers when it is not fully consumed.
+	 */
+	public Stream<Issue> run(IssueQuery query, List<Path> files) {
+		if (files.isEmpty()) {
+			return Stream.empty();
+		}
+		BlockingQueue<Issue> queue = new ArrayBlockingQueue<>(queueCapacity);
+		AtomicReference<Exception> failure = new AtomicReference<>();
+		AtomicInteger remainingFiles = new AtomicInteger(files.size());
+		ExecutorService executor = Executors
+				.newFixedThreadPool(Math.min(concurrentFiles, files.size()));
+		for (Path file : files) {
+			executor.submit(() -> {
+				try {
+					forEachMatch(query, file, issue -> put(queue, issue));
+				} catch (ReaderCancelledException e) {
+					return;
+				} catch (IOException | RuntimeException e) {
+					failure.compareAndSet(null, e);
+				}
+				if (remainingFiles.decrementAndGet() == 0) {
+					put(queue, END_OF_RESULTS);
+				}
+			});
+		}
+		executor.shutdown();
+
+		Iterator<Issue> results = new QueueIterator(queue, failure);
+		return StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(results, Spliterator.NONNULL), false)
+				.onClose(executor::shutdownNow);
+	}
+
+	private static void put(BlockingQueue<Issue> queue, Issue issue) {
+		try {
+			queue.put(issue);
+		} catch (InterruptedException e) {
+			// the stream was closed
+			Thread.currentThread().interrupt();
+			throw new ReaderCancelledException();
+		}
+	}
+
+	private static class ReaderCancelledException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+	}
+
+	private static class QueueIterator implements Iterator<Issue> {
+
+		private final BlockingQueue<Issue> queue;
+
+		private final AtomicReference<Exception> failure;
+
+		private Issue next;
+
+		private boolean finished;
+
+		QueueIterator(BlockingQueue<Issue> queue, AtomicReference<Exception> failure) {
+			this.queue = queue;
+			this.failure = failure;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (next == null && !finished) {
+				next = take();
+				finished = next == END_OF_RESULTS;
+			}
+			Exception exception = failure.get();
+			if (exception instanceof IOException) {
+				throw new UncheckedIOException((IOException) exception);
+			} else if (exception != null) {
+				throw (RuntimeException) exception;
+			}
+			return !finished;
+		}
+
+		private Issue take() {
+			try {
+				return queue.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for issues", e);
+			}
+		}
+
+		@Override
+		public Issue next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Issue issue = next;
+			next = null;
+			return issue;
+		}
+	}
+
+}
@@ -0,0 +1,224 @@
+package br.unb.cloudissues.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.gson.Gson;
+
+import br.unb.cloudissues.model.Project;
+import br.unb.cloudissues.model.Violations;
+import br.unb.cloudissues.util.StringDictionary;
+import br.unb.cloudissues.util.Utils;
+
+/**
+ * Binary, gzipped file format of an {@link IssueTable}, in this order:
+ * 
+ * <pre>
+ * magic, version, project (as JSON), total, rows
+ * per {@link IssueColumn}: if dictionary-encoded, dictionary size, values and
+ *                          one code per row; otherwise one string per row
+ * text ranges: start lines, end lines, start offsets, end offsets
+ * per {@link DateColumn}: epoch seconds per row, offset seconds per row
+ * </pre>
+ * 
+ * Strings are length-prefixed UTF-8. Columns are stored one after the other,
+ * so values of the same kind are compressed together. Version 1 files, where
+ * every column was dictionary-encoded, are still read.
+ */
+public final class IssueStore {
+
+	public static final String EXTENSION = ".issues";
+
+	private static final int MAGIC = 0x43495353; // CISS
+
+	private static final int VERSION = 2;
+
+	// every column dictionary-encoded
+	private static final int VERSION_ALL_DICTIONARIES = 1;
+
+	private static final int NULL_LENGTH = -1;
+
+	private static final Gson gson = new Gson();
+
+	private IssueStore() {
+
+	}
+
+	public static void write(Violations violations, Path path) throws IOException {
+		write(IssueTable.of(violations), path);
+	}
+
+	/**
+	 * Writes to a temporary file next to {@code path}, then renames it, so
+	 * readers never see a half-written file. Needs the directory to exist.
+	 */
+	public static void write(IssueTable table, Path path) throws IOException {
+		Path target = path.toAbsolutePath();
+		Path tempPath = Utils.createTempFileNextTo(target);
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+					new GZIPOutputStream(Files.newOutputStream(tempPath))))) {
+				writeTable(table, out);
+			}
+			Files.move(tempPath, target, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tempPath);
+		}
+	}
+
+	private static void writeTable(IssueTable table, DataOutputStream out) throws IOException {
+		int size = table.size();
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		writeString(out, table.getProject() == null ? null : gson.toJson(table.getProject()));
+		out.writeLong(table.getTotal());
+		out.writeInt(size);
+
+		for (IssueColumn column : IssueColumn.values()) {
+			if (!column.isDictionaryEncoded()) {
+				for (String value : table.plainValues()[column.ordinal()]) {
+					writeString(out, value);
+				}
+				continue;
+			}
+			String[] dictionary = table.dictionaries()[column.ordinal()];
+			out.writeInt(dictionary.length);
+			for (String value : dictionary) {
+				writeString(out, value);
+			}
+			writeInts(out, table.codes()[column.ordinal()]);
+		}
+		for (int[] positions : table.textRanges()) {
+			writeInts(out, positions);
+		}
+		for (DateColumn dateColumn : DateColumn.values()) {
+			for (long seconds : table.epochSeconds()[dateColumn.ordinal()]) {
+				out.writeLong(seconds);
+			}
+			writeInts(out, table.offsetSeconds()[dateColumn.ordinal()]);
+		}
+	}
+
+	/**
+	 * Loads the whole table in memory: the file is stored column by column, so
+	 * no row is complete before the last column is read, and the
+	 * {@link IssueTable#cursor()} moves over the loaded table rather than
+	 * streaming the file.
+	 */
+	public static IssueTable read(Path path) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new GZIPInputStream(Files.newInputStream(path))))) {
+			return readTable(in, path);
+		}
+	}
+
+	private static IssueTable readTable(DataInputStream in, Path path) throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not an issue store: " + path);
+		}
+		int version = in.readInt();
+		if (version != VERSION && version != VERSION_ALL_DICTIONARIES) {
+			throw new IOException("Unsupported issue store version " + version + ": " + path);
+		}
+		String projectJson = readString(in);
+		Project project = projectJson == null ? null : gson.fromJson(projectJson, Project.class);
+		long total = in.readLong();
+		int size = in.readInt();
+
+		IssueColumn[] columns = IssueColumn.values();
+		String[][] dictionaries = new String[columns.length][];
+		int[][] codes = new int[columns.length][];
+		String[][] plainValues = new String[columns.length][];
+		for (IssueColumn column : columns) {
+			if (!column.isDictionaryEncoded() && version == VERSION) {
+				plainValues[column.ordinal()] = readStrings(in, size);
+				continue;
+			}
+			String[] dictionary = readStrings(in, in.readInt());
+			int[] columnCodes = readInts(in, size);
+			if (column.isDictionaryEncoded()) {
+				dictionaries[column.ordinal()] = dictionary;
+				codes[column.ordinal()] = columnCodes;
+			} else {
+				plainValues[column.ordinal()] = decode(dictionary, columnCodes);
+			}
+		}
+		int[][] textRanges = new int[4][];
+		for (int i = 0; i < textRanges.length; i++) {
+			textRanges[i] = readInts(in, size);
+		}
+		DateColumn[] dateColumns = DateColumn.values();
+		long[][] epochSeconds = new long[dateColumns.length][size];
+		int[][] offsetSeconds = new int[dateColumns.length][];
+		for (DateColumn dateColumn : dateColumns) {
+			long[] seconds = epochSeconds[dateColumn.ordinal()];
+			for (int row = 0; row < size; row++) {
+				seconds[row] = in.readLong();
+			}
+			offsetSeconds[dateColumn.ordinal()] = readInts(in, size);
+		}
+		return new IssueTable(project, total, size, dictionaries, codes, plainValues,
+				textRanges, epochSeconds, offsetSeconds);
+	}
+
+	private static String[] decode(String[] dictionary, int[] codes) {
+		String[] values = new String[codes.length];
+		for (int row = 0; row < codes.length; row++) {
+			values[row] = codes[row] == StringDictionary.NULL_CODE ? null : dictionary[codes[row]];
+		}
+		return values;
+	}
+
+	private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+		for (int value : values) {
+			out.writeInt(value);
+		}
+	}
+
+	private static int[] readInts(DataInputStream in, int size) throws IOException {
+		int[] values = new int[size];
+		for (int i = 0; i < size; i++) {
+			values[i] = in.readInt();
+		}
+		return values;
+	}
+
+	private static String[] readStrings(DataInputStream in, int size) throws IOException {
+		String[] values = new String[size];
+		for (int i = 0; i < size; i++) {
+			values[i] = readString(in);
+		}
+		return values;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(NULL_LENGTH);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,339 @@
+package br.unb.cloudissues.storage;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import br.unb.cloudissues.model.Issue;
+import br.unb.cloudissues.model.Project;
+import br.unb.cloudissues.model.TextRange;
+import br.unb.cloudissues.model.Violations;
+import br.unb.cloudissues.util.SonarDates;
+import br.unb.cloudissues.util.StringDictionary;
+
+/**
+ * The issues of a {@link Violations} stored by column: low-cardinality string
+ * fields as int codes into a per-column dictionary, keys and components as
+ * plain strings, dates as epoch seconds and text ranges as ints. Scanning with
+ * a {@link Cursor} allocates nothing per row.
+ */
+public class IssueTable {
+
+	/**
+	 * Value of a missing date, in epoch seconds.
+	 */
+	public static final long NO_DATE = SonarDates.NO_DATE;
+
+	/**
+	 * Value of a missing text range line or offset.
+	 */
+	public static final int NO_POSITION = -1;
+
+	private static final DateTimeFormatter SONAR_DATE_FORMATTER = DateTimeFormatter
+			.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ");
+
+	private final Project project;
+
+	private final long total;
+
+	private final int size;
+
+	// by column, null for the columns that are not dictionary-encoded
+	private final String[][] dictionaries;
+
+	private final int[][] codes;
+
+	// by column, null for the dictionary-encoded columns
+	private final String[][] plainValues;
+
+	// startLine, endLine, startOffset, endOffset
+	private final int[][] textRanges;
+
+	private final long[][] epochSeconds;
+
+	private final int[][] offsetSeconds;
+
+	IssueTable(Project project, long total, int size, String[][] dictionaries, int[][] codes,
+			String[][] plainValues, int[][] textRanges, long[][] epochSeconds,
+			int[][] offsetSeconds) {
+		this.project = project;
+		this.total = total;
+		this.size = size;
+		this.dictionaries = dictionaries;
+		this.codes = codes;
+		this.plainValues = plainValues;
+		this.textRanges = textRanges;
+		this.epochSeconds = epochSeconds;
+		this.offsetSeconds = offsetSeconds;
+	}
+
+	public static IssueTable of(Violations violations) {
+		List<Issue> issues = violations.getIssues();
+		int size = issues.size();
+		IssueColumn[] columns = IssueColumn.values();
+		DateColumn[] dateColumns = DateColumn.values();
+
+		String[][] dictionaries = new String[columns.length][];
+		int[][] codes = new int[columns.length][];
+		String[][] plainValues = new String[columns.length][];
+		for (IssueColumn column : columns) {
+			if (!column.isDictionaryEncoded()) {
+				String[] values = new String[size];
+				for (int row = 0; row < size; row++) {
+					values[row] = column.get(issues.get(row));
+				}
+				plainValues[column.ordinal()] = values;
+				continue;
+			}
+			StringDictionary dictionary = new StringDictionary();
+			int[] columnCodes = new int[size];
+			for (int row = 0; row < size; row++) {
+				columnCodes[row] = dictionary.encode(column.get(issues.get(row)));
+			}
+			codes[column.ordinal()] = columnCodes;
+			dictionaries[column.ordinal()] = dictionary.getValues().toArray(new String[0]);
+		}
+
+		int[][] textRanges = new int[4][size];
+		long[][] epochSeconds = new long[dateColumns.length][size];
+		int[][] offsetSeconds = new int[dateColumns.length][size];
+		for (int row = 0; row < size; row++) {
+			Issue issue = issues.get(row);
+			TextRange textRange = issue.getTextRange();
+			textRanges[0][row] = position(textRange == null ? null : textRange.getStartLine());
+			textRanges[1][row] = position(textRange == null ? null : textRange.getEndLine());
+			textRanges[2][row] = position(textRange == null ? null : textRange.getStartOffset());
+			textRanges[3][row] = position(textRange == null ? null : textRange.getEndOffset());
+
+			for (DateColumn dateColumn : dateColumns) {
+				String date = dateColumn.get(issue);
+				epochSeconds[dateColumn.ordinal()][row] = SonarDates.toEpochSecond(date);
+				offsetSeconds[dateColumn.ordinal()][row] = SonarDates.offsetSeconds(date);
+			}
+		}
+
+		long total = violations.getTotal() == null ? size : violations.getTotal();
+		return new IssueTable(violations.getProject(), total, size, dictionaries, codes,
+				plainValues, textRanges, epochSeconds, offsetSeconds);
+	}
+
+	private static int position(Long value) {
+		return value == null ? NO_POSITION : value.intValue();
+	}
+
+	public Project getProject() {
+		return project;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the distinct values of {@code column}, indexed by code.
+	 * @throws IllegalArgumentException if {@code column} is not
+	 *                                  {@link IssueColumn#isDictionaryEncoded()}.
+	 */
+	public String[] getDictionary(IssueColumn column) {
+		requireDictionaryEncoded(column);
+		return dictionaries[column.ordinal()].clone();
+	}
+
+	private static void requireDictionaryEncoded(IssueColumn column) {
+		if (!column.isDictionaryEncoded()) {
+			throw new IllegalArgumentException(column + " is not dictionary-encoded");
+		}
+	}
+
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * @return the issue at {@code row}, equal to the one it was stored from.
+	 */
+	public Issue toIssue(int row) {
+		Issue issue = new Issue();
+		for (IssueColumn column : IssueColumn.values()) {
+			column.set(issue, string(column, row));
+		}
+		if (textRanges[0][row] != NO_POSITION || textRanges[1][row] != NO_POSITION
+				|| textRanges[2][row] != NO_POSITION || textRanges[3][row] != NO_POSITION) {
+			TextRange textRange = new TextRange();
+			textRange.setStartLine(boxed(textRanges[0][row]));
+			textRange.setEndLine(boxed(textRanges[1][row]));
+			textRange.setStartOffset(boxed(textRanges[2][row]));
+			textRange.setEndOffset(boxed(textRanges[3][row]));
+			issue.setTextRange(textRange);
+		}
+		for (DateColumn dateColumn : DateColumn.values()) {
+			long seconds = epochSeconds[dateColumn.ordinal()][row];
+			if (seconds != NO_DATE) {
+				ZoneOffset offset = ZoneOffset
+						.ofTotalSeconds(offsetSeconds[dateColumn.ordinal()][row]);
+				dateColumn.set(issue, SONAR_DATE_FORMATTER
+						.format(Instant.ofEpochSecond(seconds).atOffset(offset)));
+			}
+		}
+		return issue;
+	}
+
+	private static Long boxed(int position) {
+		return position == NO_POSITION ? null : (long) position;
+	}
+
+	public Violations toViolations() {
+		List<Issue> issues = new ArrayList<>(size);
+		for (int row = 0; row < size; row++) {
+			issues.add(toIssue(row));
+		}
+		return new Violations(project, total, issues);
+	}
+
+	private String string(IssueColumn column, int row) {
+		if (!column.isDictionaryEncoded()) {
+			return plainValues[column.ordinal()][row];
+		}
+		int code = codes[column.ordinal()][row];
+		return code == StringDictionary.NULL_CODE ? null : dictionaries[column.ordinal()][code];
+	}
+
+	String[][] dictionaries() {
+		return dictionaries;
+	}
+
+	int[][] codes() {
+		return codes;
+	}
+
+	String[][] plainValues() {
+		return plainValues;
+	}
+
+	int[][] textRanges() {
+		return textRanges;
+	}
+
+	long[][] epochSeconds() {
+		return epochSeconds;
+	}
+
+	int[][] offsetSeconds() {
+		return offsetSeconds;
+	}
+
+	/**
+	 * Moves over the rows of the table, which is fully in memory; every getter
+	 * reads the current row. Strings returned are the table's own instances.
+	 */
+	public class Cursor {
+
+		private int row = -1;
+
+		public boolean next() {
+			if (row + 1 >= size) {
+				return false;
+			}
+			row++;
+			return true;
+		}
+
+		public int getRow() {
+			return row;
+		}
+
+		public String get(IssueColumn column) {
+			return string(column, row);
+		}
+
+		/**
+		 * @return the code of the current value of {@code column} in
+		 *         {@link IssueTable#getDictionary(IssueColumn)}, or
+		 *         {@link StringDictionary#NULL_CODE}.
+		 * @throws IllegalArgumentException if {@code column} is not
+		 *                                  {@link IssueColumn#isDictionaryEncoded()}.
+		 */
+		public int getCode(IssueColumn column) {
+			requireDictionaryEncoded(column);
+			return codes[column.ordinal()][row];
+		}
+
+		public String getKey() {
+			return get(IssueColumn.KEY);
+		}
+
+		public String getRule() {
+			return get(IssueColumn.RULE);
+		}
+
+		public String getComponent() {
+			return get(IssueColumn.COMPONENT);
+		}
+
+		public String getSeverity() {
+			return get(IssueColumn.SEVERITY);
+		}
+
+		public String getType() {
+			return get(IssueColumn.TYPE);
+		}
+
+		public String getStatus() {
+			return get(IssueColumn.STATUS);
+		}
+
+		public String getResolution() {
+			return get(IssueColumn.RESOLUTION);
+		}
+
+		/**
+		 * @return epoch seconds of the date, or {@link IssueTable#NO_DATE}.
+		 */
+		public long getEpochSecond(DateColumn dateColumn) {
+			return epochSeconds[dateColumn.ordinal()][row];
+		}
+
+		/**
+		 * @return the offset {@code dateColumn} was written with, in seconds.
+		 */
+		public int getOffsetSeconds(DateColumn dateColumn) {
+			return offsetSeconds[dateColumn.ordinal()][row];
+		}
+
+		/**
+		 * @return same as {@link Issue#getTimeToFixAsSeconds()}: -1 when the issue
+		 *         has no creation or close date.
+		 */
+		public long getTimeToFixAsSeconds() {
+			long created = epochSeconds[DateColumn.CREATION_DATE.ordinal()][row];
+			long closed = epochSeconds[DateColumn.CLOSE_DATE.ordinal()][row];
+			if (created == NO_DATE || closed == NO_DATE) {
+				return -1L;
+			}
+			return closed - created;
+		}
+
+		public int getStartLine() {
+			return textRanges[0][row];
+		}
+
+		public int getEndLine() {
+			return textRanges[1][row];
+		}
+
+		public int getStartOffset() {
+			return textRanges[2][row];
+		}
+
+		public int getEndOffset() {
+			return textRanges[3][row];
+		}
+	}
+
+}
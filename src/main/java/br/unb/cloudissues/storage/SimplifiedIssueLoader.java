@@ -0,0 +1,104 @@
+package br.unb.cloudissues.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import br.unb.cloudissues.model.Issue;
+import br.unb.cloudissues.model.Rule;
+import br.unb.cloudissues.model.SimplifiedIssue;
+import br.unb.cloudissues.util.StringPool;
+
+/**
+ * Loads {@link SimplifiedIssue}s from the files the miner writes, reading only
+ * the key, component and rule of each issue and skipping everything else
+ * without building an {@link Issue}. Rule names are resolved through a map
+ * built once from the rules catalog (see {@code JavaRulesRetriever}); rules
+ * missing from the catalog get a {@code null} name.
+ */
+public class SimplifiedIssueLoader {
+
+	private final ViolationsFileReader fileReader = new ViolationsFileReader();
+
+	private final Map<String, String> ruleNamesByKey;
+
+	private final StringPool stringPool;
+
+	public SimplifiedIssueLoader(Collection<Rule> rules, StringPool stringPool) {
+		this.stringPool = stringPool;
+		ruleNamesByKey = new HashMap<>(rules.size() * 4 / 3 + 1);
+		for (Rule rule : rules) {
+			ruleNamesByKey.put(rule.getKey(), rule.getName());
+		}
+	}
+
+	public SimplifiedIssueLoader(Collection<Rule> rules) {
+		this(rules, new StringPool());
+	}
+
+	/**
+	 * Hands the issues of a JSON, NDJSON or {@link IssueStore} file to
+	 * {@code sink} as they are read.
+	 */
+	public void forEach(Path path, Consumer<SimplifiedIssue> sink) throws IOException {
+		if (path.getFileName().toString().endsWith(IssueStore.EXTENSION)) {
+			IssueTable.Cursor cursor = IssueStore.read(path).cursor();
+			while (cursor.next()) {
+				sink.accept(simplified(cursor.getKey(), cursor.getComponent(), cursor.getRule()));
+			}
+		} else {
+			fileReader.forEachIssue(path, this::readSimplified,
+					(projectKey, issue) -> sink.accept(issue));
+		}
+	}
+
+	public List<SimplifiedIssue> load(Path path) throws IOException {
+		List<SimplifiedIssue> issues = new ArrayList<>();
+		forEach(path, issues::add);
+		return issues;
+	}
+
+	private SimplifiedIssue readSimplified(JsonReader reader) throws IOException {
+		String key = null;
+		String component = null;
+		String rule = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (reader.peek() == JsonToken.NULL) {
+				reader.skipValue();
+				continue;
+			}
+			switch (name) {
+			case "key":
+				key = reader.nextString();
+				break;
+			case "component":
+				component = reader.nextString();
+				break;
+			case "rule":
+				rule = reader.nextString();
+				break;
+			default:
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return simplified(key, component, rule);
+	}
+
+	private SimplifiedIssue simplified(String key, String component, String rule) {
+		String pooledRule = stringPool.intern(rule);
+		return new SimplifiedIssue(key, stringPool.intern(component), pooledRule,
+				ruleNamesByKey.get(pooledRule));
+	}
+
+}
@@ -0,0 +1,191 @@
+package br.unb.cloudissues.storage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import br.unb.cloudissues.model.Issue;
+import br.unb.cloudissues.model.Project;
+
+/**
+ * Streams the issues of a file written by the miner, one at a time, whatever
+ * its size: a JSON list of {@code Violations}, an NDJSON file of issues or an
+ * {@link IssueStore} file, depending on the extension.
+ */
+public class ViolationsFileReader {
+
+	public static final String NDJSON_EXTENSION = ".ndjson";
+
+	private static final String JSON_EXTENSION = ".json";
+
+	private final Gson gson = new Gson();
+
+	private final TypeAdapter<Issue> issueAdapter = gson.getAdapter(Issue.class);
+
+	private final TypeAdapter<Project> projectAdapter = gson.getAdapter(Project.class);
+
+	/**
+	 * Reads one issue object, or only the parts of it the caller needs; issues
+	 * read as {@code null} are dropped.
+	 */
+	@FunctionalInterface
+	public interface IssueReader<T> {
+
+		T read(JsonReader reader) throws IOException;
+	}
+
+	/**
+	 * @return the JSON, NDJSON and {@link IssueStore} files of {@code directory},
+	 *         without the JSON files already converted to {@link IssueStore}
+	 *         files, whose issues they would count twice.
+	 */
+	public static List<Path> violationsFilesIn(String directory) throws IOException {
+		try (Stream<Path> files = Files.list(Paths.get(directory))) {
+			return files.filter(Files::isRegularFile).filter(file -> {
+				String name = file.getFileName().toString();
+				if (name.endsWith(JSON_EXTENSION)) {
+					return !isConvertedToIssueStore(file);
+				}
+				return name.endsWith(NDJSON_EXTENSION) || name.endsWith(IssueStore.EXTENSION);
+			}).sorted().collect(Collectors.toList());
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	// named as Main.convertViolationsToIssueStore does, with -0 when split
+	private static boolean isConvertedToIssueStore(Path jsonFile) {
+		String baseName = jsonFile.toString().replaceAll("\\.json$", "");
+		return Files.exists(Paths.get(baseName + IssueStore.EXTENSION))
+				|| Files.exists(Paths.get(baseName + "-0" + IssueStore.EXTENSION));
+	}
+
+	/**
+	 * Hands every issue of {@code path} to {@code consumer}, with the key of its
+	 * project: the key of the enclosing {@code Violations} in JSON files, the
+	 * issue's own {@link Issue#getProject()} otherwise.
+	 */
+	public void forEachIssue(Path path, BiConsumer<String, Issue> consumer) throws IOException {
+		String fileName = path.getFileName().toString();
+		if (fileName.endsWith(IssueStore.EXTENSION)) {
+			forEachStoredIssue(path, consumer);
+		} else {
+			forEachIssue(path, issueAdapter::read, (projectKey, issue) -> consumer
+					.accept(projectKey == null ? issue.getProject() : projectKey, issue));
+		}
+	}
+
+	/**
+	 * Same as {@link #forEachIssue(Path, BiConsumer)} for JSON and NDJSON files,
+	 * each issue being read by {@code issueReader} instead of being fully parsed.
+	 * The project key is {@code null} for NDJSON files.
+	 */
+	public <T> void forEachIssue(Path path, IssueReader<T> issueReader,
+			BiConsumer<String, T> consumer) throws IOException {
+		forEachIssue(path, projectKey -> true, issueReader, consumer);
+	}
+
+	/**
+	 * Same as {@link #forEachIssue(Path, IssueReader, BiConsumer)}, skipping
+	 * without reading them the issues of the {@code Violations} whose project key
+	 * fails {@code projectFilter}. NDJSON issues are always read.
+	 */
+	public <T> void forEachIssue(Path path, Predicate<String> projectFilter,
+			IssueReader<T> issueReader, BiConsumer<String, T> consumer) throws IOException {
+		if (path.getFileName().toString().endsWith(NDJSON_EXTENSION)) {
+			forEachNdjsonIssue(path, issueReader, consumer);
+		} else {
+			forEachJsonIssue(path, projectFilter, issueReader, consumer);
+		}
+	}
+
+	private void forEachStoredIssue(Path path, BiConsumer<String, Issue> consumer)
+			throws IOException {
+		IssueTable table = IssueStore.read(path);
+		String projectKey = table.getProject() == null ? null
+				: table.getProject().getProjectKey();
+		for (int row = 0; row < table.size(); row++) {
+			Issue issue = table.toIssue(row);
+			consumer.accept(projectKey == null ? issue.getProject() : projectKey, issue);
+		}
+	}
+
+	private <T> void forEachNdjsonIssue(Path path, IssueReader<T> issueReader,
+			BiConsumer<String, T> consumer) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty()) {
+					continue;
+				}
+				T issue;
+				try (JsonReader lineReader = new JsonReader(new StringReader(line))) {
+					issue = issueReader.read(lineReader);
+				} catch (IOException | JsonParseException | IllegalStateException e) {
+					// the last line of a file cut short by a killed run
+					System.out.println("Skipping malformed line of " + path);
+					continue;
+				}
+				if (issue != null) {
+					consumer.accept(null, issue);
+				}
+			}
+		}
+	}
+
+	private <T> void forEachJsonIssue(Path path, Predicate<String> projectFilter,
+			IssueReader<T> issueReader, BiConsumer<String, T> consumer) throws IOException {
+		try (JsonReader reader = new JsonReader(
+				Files.newBufferedReader(path, StandardCharsets.UTF_8))) {
+			reader.beginArray();
+			while (reader.hasNext()) {
+				readViolations(reader, projectFilter, issueReader, consumer);
+			}
+			reader.endArray();
+		} catch (IllegalStateException e) {
+			throw new IOException("Malformed violations file " + path, e);
+		}
+	}
+
+	private <T> void readViolations(JsonReader reader, Predicate<String> projectFilter,
+			IssueReader<T> issueReader, BiConsumer<String, T> consumer) throws IOException {
+		String projectKey = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if ("project".equals(name) && reader.peek() != JsonToken.NULL) {
+				projectKey = projectAdapter.read(reader).getProjectKey();
+			} else if ("issues".equals(name) && reader.peek() != JsonToken.NULL
+					&& (projectKey == null || projectFilter.test(projectKey))) {
+				reader.beginArray();
+				while (reader.hasNext()) {
+					T issue = issueReader.read(reader);
+					if (issue != null) {
+						consumer.accept(projectKey, issue);
+					}
+				}
+				reader.endArray();
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+	}
+
+}
@@ -0,0 +1,72 @@
+package br.unb.cloudissues.util;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * Long-lived {@link OkHttpClient}s shared by every retriever, so connections
+ * (and their TLS sessions) are reused across pages and projects instead of
+ * being opened again by each retriever.
+ * <p>
+ * HTTP/2 is negotiated when the server offers it, and responses are gzipped
+ * transparently: OkHttp asks for gzip and decompresses it as long as no one
+ * sets {@code Accept-Encoding} by hand.
+ */
+public class HttpClients {
+
+	private static final int TIMEOUT_IN_SECONDS = 60;
+
+	// enough idle connections for every page and project worker in Main
+	private static final int MAX_IDLE_CONNECTIONS = 32;
+
+	private static final int KEEP_ALIVE_IN_MINUTES = 5;
+
+	private static final int MAX_REQUESTS_PER_HOST = 32;
+
+	private static final OkHttpClient SHARED = createShared();
+
+	private static volatile OkHttpClient unsafe;
+
+	private HttpClients() {
+
+	}
+
+	private static OkHttpClient createShared() {
+		Dispatcher dispatcher = new Dispatcher();
+		dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+		return new OkHttpClient.Builder()
+				.connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_IN_MINUTES,
+						TimeUnit.MINUTES))
+				.dispatcher(dispatcher) //
+				.protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+				.retryOnConnectionFailure(true) //
+				.connectTimeout(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)
+				.writeTimeout(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)
+				.readTimeout(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS).build();
+	}
+
+	public static OkHttpClient shared() {
+		return SHARED;
+	}
+
+	/**
+	 * @return a client that trusts every certificate, sharing the connection
+	 *         pool and dispatcher of {@link #shared()}.
+	 */
+	public static OkHttpClient unsafe() {
+		if (unsafe == null) {
+			synchronized (HttpClients.class) {
+				if (unsafe == null) {
+					unsafe = UnsafeOkHttpClient.trustingAllCertificates(SHARED.newBuilder()).build();
+				}
+			}
+		}
+		return unsafe;
+	}
+
+}
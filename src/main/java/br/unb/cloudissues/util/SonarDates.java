@@ -0,0 +1,128 @@
+package br.unb.cloudissues.util;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Fast parsing of the dates Sonar returns, {@code yyyy-MM-dd'T'HH:mm:ssZ}
+ * (e.g. {@code 2019-03-04T10:20:30+0000}), straight into epoch seconds without
+ * allocating. Anything in another layout (e.g. {@code +00:00}, {@code Z} or
+ * fractions of seconds) goes through
+ * {@link Utils#formatterForOffsetDateWithoutCollon()}.
+ */
+public final class SonarDates {
+
+	/**
+	 * Epoch seconds of a missing date.
+	 */
+	public static final long NO_DATE = Long.MIN_VALUE;
+
+	private static final int SONAR_DATE_LENGTH = 24;
+
+	private static final int SECONDS_PER_DAY = 86_400;
+
+	private static final int[] DIGIT_POSITIONS = { 0, 1, 2, 3, 5, 6, 8, 9, 11, 12, 14, 15, 17,
+			18, 20, 21, 22, 23 };
+
+	private SonarDates() {
+
+	}
+
+	/**
+	 * @return the epoch seconds of {@code date}, {@link #NO_DATE} if it is null.
+	 * @throws java.time.format.DateTimeParseException if it is not a date.
+	 */
+	public static long toEpochSecond(String date) {
+		if (date == null) {
+			return NO_DATE;
+		}
+		if (!isSonarLayout(date)) {
+			return OffsetDateTime.parse(date, Utils.formatterForOffsetDateWithoutCollon())
+					.toEpochSecond();
+		}
+		long epochDay = epochDay(digits(date, 0, 4), digits(date, 5, 2), digits(date, 8, 2));
+		long secondOfDay = digits(date, 11, 2) * 3600L + digits(date, 14, 2) * 60L
+				+ digits(date, 17, 2);
+		return epochDay * SECONDS_PER_DAY + secondOfDay - offsetSeconds(date);
+	}
+
+	/**
+	 * @return the offset of {@code date} from UTC, in seconds, 0 if it is null.
+	 */
+	public static int offsetSeconds(String date) {
+		if (date == null) {
+			return 0;
+		}
+		if (!isSonarLayout(date)) {
+			return OffsetDateTime.parse(date, Utils.formatterForOffsetDateWithoutCollon())
+					.getOffset().getTotalSeconds();
+		}
+		int seconds = digits(date, 20, 2) * 3600 + digits(date, 22, 2) * 60;
+		return date.charAt(19) == '-' ? -seconds : seconds;
+	}
+
+	/**
+	 * @return the seconds from {@code creationDate} to {@code closeDate}, -1 if
+	 *         any of them is missing.
+	 */
+	public static long secondsBetween(String creationDate, String closeDate) {
+		if (creationDate == null || closeDate == null) {
+			return -1L;
+		}
+		return toEpochSecond(closeDate) - toEpochSecond(creationDate);
+	}
+
+	private static boolean isSonarLayout(String date) {
+		if (date.length() != SONAR_DATE_LENGTH || date.charAt(4) != '-' || date.charAt(7) != '-'
+				|| date.charAt(10) != 'T' || date.charAt(13) != ':' || date.charAt(16) != ':'
+				|| (date.charAt(19) != '+' && date.charAt(19) != '-')) {
+			return false;
+		}
+		for (int i : DIGIT_POSITIONS) {
+			if (date.charAt(i) < '0' || date.charAt(i) > '9') {
+				return false;
+			}
+		}
+		int month = digits(date, 5, 2);
+		int day = digits(date, 8, 2);
+		return month >= 1 && month <= 12 && day >= 1
+				&& day <= daysInMonth(digits(date, 0, 4), month) && digits(date, 11, 2) < 24
+				&& digits(date, 14, 2) < 60 && digits(date, 17, 2) < 60;
+	}
+
+	private static int daysInMonth(int year, int month) {
+		switch (month) {
+		case 2:
+			boolean leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+			return leap ? 29 : 28;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			return 30;
+		default:
+			return 31;
+		}
+	}
+
+	private static int digits(String date, int from, int count) {
+		int value = 0;
+		for (int i = from; i < from + count; i++) {
+			value = value * 10 + (date.charAt(i) - '0');
+		}
+		return value;
+	}
+
+	/**
+	 * Days since 1970-01-01 of a proleptic Gregorian date (Howard Hinnant's
+	 * days_from_civil).
+	 */
+	private static long epochDay(int year, int month, int day) {
+		long y = month <= 2 ? year - 1 : year;
+		long era = Math.floorDiv(y, 400);
+		long yearOfEra = y - era * 400;
+		long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+		long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146_097 + dayOfEra - 719_468;
+	}
+
+}
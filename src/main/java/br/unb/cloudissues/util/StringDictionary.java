@@ -0,0 +1,64 @@
+package br.unb.cloudissues.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns each distinct string a dense int code, in order of first appearance,
+ * so repeated values can be stored and compared as ints. {@code null} is
+ * encoded as {@link #NULL_CODE}. Not thread-safe.
+ */
+public class StringDictionary {
+
+	public static final int NULL_CODE = -1;
+
+	private final Map<String, Integer> codesByValue = new HashMap<>();
+
+	private final List<String> values = new ArrayList<>();
+
+	/**
+	 * @return the code of {@code value}, adding it to the dictionary if new.
+	 */
+	public int encode(String value) {
+		if (value == null) {
+			return NULL_CODE;
+		}
+		Integer code = codesByValue.get(value);
+		if (code == null) {
+			code = values.size();
+			codesByValue.put(value, code);
+			values.add(value);
+		}
+		return code;
+	}
+
+	/**
+	 * @return the code of {@code value}, or {@link #NULL_CODE} if it is not in
+	 *         the dictionary.
+	 */
+	public int codeOf(String value) {
+		if (value == null) {
+			return NULL_CODE;
+		}
+		return codesByValue.getOrDefault(value, NULL_CODE);
+	}
+
+	public String decode(int code) {
+		return code == NULL_CODE ? null : values.get(code);
+	}
+
+	public int size() {
+		return values.size();
+	}
+
+	/**
+	 * @return the values, indexed by code.
+	 */
+	public List<String> getValues() {
+		return Collections.unmodifiableList(values);
+	}
+
+}
@@ -0,0 +1,31 @@
+package br.unb.cloudissues.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Canonical instances of repeated strings, like {@link String#intern()} but
+ * owned by the caller: the pool is garbage collected with the data loaded
+ * through it. Thread-safe.
+ */
+public class StringPool {
+
+	private final ConcurrentMap<String, String> pool = new ConcurrentHashMap<>();
+
+	/**
+	 * @return the pooled instance equal to {@code value}, {@code value} itself if
+	 *         it is the first.
+	 */
+	public String intern(String value) {
+		if (value == null) {
+			return null;
+		}
+		String pooled = pool.putIfAbsent(value, value);
+		return pooled == null ? value : pooled;
+	}
+
+	public int size() {
+		return pool.size();
+	}
+
+}
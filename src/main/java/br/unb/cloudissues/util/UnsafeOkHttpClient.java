@@ -2,7 +2,6 @@ package br.unb.cloudissues.util;
 
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
-import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
@@ -19,7 +18,15 @@ public class UnsafeOkHttpClient {
 		
 	}
 
+	/**
+	 * @return the client from {@link HttpClients#unsafe()}, which shares the
+	 *         connection pool of the other retrievers.
+	 */
 	public static OkHttpClient getUnsafeOkHttpClient() {
+		return HttpClients.unsafe();
+	}
+
+	static OkHttpClient.Builder trustingAllCertificates(OkHttpClient.Builder builder) {
 		try {
 			// Create a trust manager that does not validate certificate chains
 			final TrustManager[] trustAllCerts = new TrustManager[] { new X509TrustManager() {
@@ -45,14 +52,13 @@ public class UnsafeOkHttpClient {
 			// Create an ssl socket factory with our all-trusting manager
 			final SSLSocketFactory sslSocketFactory = sslContext.getSocketFactory();
 
-			return new OkHttpClient.Builder().sslSocketFactory(sslSocketFactory, (X509TrustManager) trustAllCerts[0])
+			return builder.sslSocketFactory(sslSocketFactory, (X509TrustManager) trustAllCerts[0])
 					.hostnameVerifier(new HostnameVerifier() {
 						@Override
 						public boolean verify(String hostname, SSLSession session) {
 							return true;
 						}
-					}).connectTimeout(60, TimeUnit.SECONDS).writeTimeout(60, TimeUnit.SECONDS)
-					.readTimeout(60, TimeUnit.SECONDS).build();
+					});
 
 		} catch (Exception e) {
 			throw new RuntimeException(e);
@@ -1,6 +1,7 @@
 package br.unb.cloudissues.util;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
@@ -10,6 +11,7 @@ import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.util.Arrays;
@@ -18,18 +20,26 @@ import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonNull;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
 
 public final class Utils {
 
 	private static Gson gson = new GsonBuilder().setPrettyPrinting().create();
 
+	private static Gson compactGson = new GsonBuilder().create();
+
+	private static final DateTimeFormatter OFFSET_DATE_WITHOUT_COLLON_FORMATTER = //
+			buildFormatterForOffsetDateWithoutCollon();
+
 	private Utils() {
 
 	}
@@ -55,9 +65,49 @@ public final class Utils {
 	 * @throws NoSuchFileException in case any directory does not exist.
 	 */
 	public static void writeObjToFileAsJSON(Object obj, String pathStr) throws IOException {
-		Path path = Paths.get(pathStr);
-		String json = gson.toJson(obj);
-		Files.write(path, json.getBytes());
+		writeObjToFileAsJSON(obj, pathStr, true);
+	}
+
+	/**
+	 * Serializes {@code obj} straight into a temporary file next to
+	 * {@code pathStr}, without building the JSON in memory, then renames it over
+	 * {@code pathStr}. Readers never see a half-written file.
+	 * 
+	 * @param prettyPrinting false writes compact JSON, noticeably smaller for
+	 *                       large lists of issues.
+	 * @throws NoSuchFileException in case any directory does not exist.
+	 */
+	public static void writeObjToFileAsJSON(Object obj, String pathStr, boolean prettyPrinting)
+			throws IOException {
+		Path path = Paths.get(pathStr).toAbsolutePath();
+		Gson writerGson = prettyPrinting ? gson : compactGson;
+		Path tempPath = createTempFileNextTo(path);
+		try {
+			try (Writer writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8);
+					JsonWriter jsonWriter = writerGson.newJsonWriter(writer)) {
+				if (obj == null) {
+					writerGson.toJson(JsonNull.INSTANCE, jsonWriter);
+				} else {
+					writerGson.toJson(obj, obj.getClass(), jsonWriter);
+				}
+			}
+			Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tempPath);
+		}
+	}
+
+	/**
+	 * Creates an empty file next to {@code target}, to be renamed over it once
+	 * written. Unlike {@link Files#createTempFile}, which makes it readable by
+	 * its owner only, it gets the default permissions of new files, which the
+	 * rename would otherwise carry over to {@code target}.
+	 */
+	public static Path createTempFileNextTo(Path target) throws IOException {
+		Path absoluteTarget = target.toAbsolutePath();
+		return Files.createFile(absoluteTarget.resolveSibling(
+				absoluteTarget.getFileName() + "." + UUID.randomUUID() + ".tmp"));
 	}
 
 	public static <T> List<T> retrieveCollectionFromJSONFile(String path, Class<T> type)
@@ -99,8 +149,16 @@ public final class Utils {
 		throw new IllegalStateException("No valid enconding found");
 	}
 
-	// @formatter:off
+	/**
+	 * @return a shared formatter; formatters are immutable and thread-safe. See
+	 *         {@link SonarDates} for a faster way to parse Sonar's dates.
+	 */
 	public static DateTimeFormatter formatterForOffsetDateWithoutCollon() {
+		return OFFSET_DATE_WITHOUT_COLLON_FORMATTER;
+	}
+
+	// @formatter:off
+	private static DateTimeFormatter buildFormatterForOffsetDateWithoutCollon() {
 		return new DateTimeFormatterBuilder()
 				// date/time
 				.append(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
@@ -161,6 +219,11 @@ public final class Utils {
 		return directory + sanitizeProjectName(projectName) + "_issues.json";
 	}
 
+	public static String generateNdjsonPathToSaveForEachProject(String directory,
+			String projectName) {
+		return directory + sanitizeProjectName(projectName) + "_issues.ndjson";
+	}
+
 	public static String sanitizeProjectName(String projectName) {
 		String projectNameSanitized = projectName.replaceAll(":", "--");
 		projectNameSanitized = projectNameSanitized.replaceAll("/", "---");